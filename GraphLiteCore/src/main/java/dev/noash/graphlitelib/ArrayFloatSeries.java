@@ -0,0 +1,49 @@
+package dev.noash.graphlitelib;
+
+final class ArrayFloatSeries extends FloatSeries {
+    private final float[] data;
+    private final int offset;
+    private final int length;
+
+    ArrayFloatSeries(float[] data, int offset, int length) {
+        this.data = data;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int size() {
+        return length;
+    }
+
+    @Override
+    public float get(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + length);
+        }
+        return data[offset + index];
+    }
+
+    @Override
+    public float min(int from, int to) {
+        float min = Float.POSITIVE_INFINITY;
+        for (int i = offset + from, end = offset + to; i < end; i++) {
+            if (data[i] < min) min = data[i];
+        }
+        return min;
+    }
+
+    @Override
+    public float max(int from, int to) {
+        float max = Float.NEGATIVE_INFINITY;
+        for (int i = offset + from, end = offset + to; i < end; i++) {
+            if (data[i] > max) max = data[i];
+        }
+        return max;
+    }
+
+    @Override
+    public void copyTo(int from, float[] dst, int dstOffset, int count) {
+        System.arraycopy(data, offset + from, dst, dstOffset, count);
+    }
+}
@@ -0,0 +1,47 @@
+package dev.noash.graphlitelib;
+
+/**
+ * "Nice" axis ticks: evenly spaced round values (steps of 1, 2, 2.5 or 5 times a power of ten) from 0 up to the
+ * first tick at or above the data maximum.
+ */
+final class AxisTicks {
+    private static final double[] NICE_FRACTIONS = {1, 2, 2.5, 5, 10};
+
+    /** Top of the axis; at least the requested maximum. */
+    final float max;
+    final float step;
+    /** Tick values in ascending order, starting at 0. */
+    final float[] values;
+
+    private AxisTicks(double max, double step, int count) {
+        this.max = (float) max;
+        this.step = (float) step;
+        values = new float[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = (float) (i * step);
+        }
+    }
+
+    /**
+     * @param dataMax  largest value that must fit on the axis; non-positive values give a 0..1 axis
+     * @param maxCount upper bound on the number of ticks, including 0; at least 2
+     */
+    static AxisTicks compute(float dataMax, int maxCount) {
+        int intervals = Math.max(1, maxCount - 1);
+        double top = dataMax >= Float.MIN_NORMAL && !Float.isInfinite(dataMax) ? dataMax : 1.0;
+        double step = niceStep(top / intervals);
+        // Tolerate float noise so a maximum of exactly 100 with step 25 does not grow a fifth interval.
+        long steps = Math.max(1, (long) Math.ceil(top / step - 1e-6));
+        return new AxisTicks(steps * step, step, (int) steps + 1);
+    }
+
+    /** Smallest nice value that is at least {@code rawStep}. */
+    static double niceStep(double rawStep) {
+        double magnitude = Math.pow(10, Math.floor(Math.log10(rawStep)));
+        double fraction = rawStep / magnitude;
+        for (double nice : NICE_FRACTIONS) {
+            if (fraction <= nice + 1e-9) return nice * magnitude;
+        }
+        return 10 * magnitude;
+    }
+}
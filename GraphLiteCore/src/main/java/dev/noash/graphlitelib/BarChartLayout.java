@@ -0,0 +1,112 @@
+package dev.noash.graphlitelib;
+
+/**
+ * Pure-Java layout stage of {@code BarChartView}: turns bar values and a view size into a {@link RenderSnapshot}.
+ */
+final class BarChartLayout {
+    static final float PADDING_LEFT = 80f;
+    static final float PADDING_RIGHT = 40f;
+    static final float PADDING_TOP = 40f;
+    static final float PADDING_BOTTOM = 80f;
+    static final float BAR_SPACING_FROM_Y_AXIS = 20f;
+    /** Most intervals on the y axis; {@link AxisTicks} may use fewer to land on round values. */
+    static final int Y_STEPS = 5;
+    /** Bar width and spacing used when the view scrolls or is sized to its content and none were set. */
+    static final float DEFAULT_BAR_WIDTH = 80f;
+    static final float DEFAULT_BAR_SPACING = 40f;
+
+    private BarChartLayout() {
+    }
+
+    /**
+     * @param customBarWidth   bar width in pixels, or NaN to fit the bars to the view
+     * @param customBarSpacing spacing in pixels, or NaN for half a bar width
+     */
+    static RenderSnapshot layout(long sequence, int width, int height, FloatSeries values,
+                                 float customBarWidth, float customBarSpacing) {
+        float left = PADDING_LEFT;
+        float top = PADDING_TOP;
+        float right = width - PADDING_RIGHT;
+        float bottom = height - PADDING_BOTTOM;
+        float usableWidth = right - left;
+        float usableHeight = bottom - top;
+        int barCount = values.size();
+
+        AxisTicks ticks = AxisTicks.compute(values.max(), Y_STEPS + 1);
+        float max = ticks.max;
+        float barWidth = !Float.isNaN(customBarWidth) ? customBarWidth : usableWidth / (barCount * 1.5f);
+        float barSpacing = !Float.isNaN(customBarSpacing) ? customBarSpacing : barWidth * 0.5f;
+
+        float[] rects = new float[barCount * 4];
+        float[] labelPositions = new float[barCount];
+        for (int i = 0; i < barCount; i++) {
+            float barHeight = (values.get(i) / max) * usableHeight;
+            float barLeft = left + BAR_SPACING_FROM_Y_AXIS + i * (barWidth + barSpacing);
+            rects[i * 4] = barLeft;
+            rects[i * 4 + 1] = bottom - barHeight;
+            rects[i * 4 + 2] = barLeft + barWidth;
+            rects[i * 4 + 3] = bottom;
+            labelPositions[i] = barLeft + barWidth / 2;
+        }
+
+        RenderSnapshot.Builder builder = new RenderSnapshot.Builder(sequence, width, height)
+                .plot(left, top, right, bottom)
+                .yTicks(ticks);
+        builder.barRects = rects;
+        builder.barCount = barCount;
+        builder.xLabelPositions = labelPositions;
+        return builder.build();
+    }
+
+    /**
+     * Lays out only the bars that intersect the plot when the bars are scrolled {@code scrollOffset} pixels to the
+     * left, so the cost depends on the view width rather than the number of bars. The snapshot's bar arrays start
+     * at bar {@link RenderSnapshot#firstBar}.
+     *
+     * @param max largest value, passed in so scrolling does not rescan the data
+     */
+    static RenderSnapshot layoutWindow(long sequence, int width, int height, FloatSeries values, float max,
+                                       float barWidth, float barSpacing, float scrollOffset) {
+        float left = PADDING_LEFT;
+        float top = PADDING_TOP;
+        float right = width - PADDING_RIGHT;
+        float bottom = height - PADDING_BOTTOM;
+        float usableHeight = bottom - top;
+        float stride = barWidth + barSpacing;
+        float origin = left + BAR_SPACING_FROM_Y_AXIS - scrollOffset;
+
+        // One extra bar on each side keeps labels wider than their bar from popping in at the edges.
+        int first = Math.max(0, (int) Math.floor((left - origin - barWidth) / stride) - 1);
+        int end = Math.min(values.size(), (int) Math.ceil((right - origin) / stride) + 1);
+        int barCount = Math.max(0, end - first);
+
+        AxisTicks ticks = AxisTicks.compute(max, Y_STEPS + 1);
+        float[] rects = new float[barCount * 4];
+        float[] labelPositions = new float[barCount];
+        for (int i = 0; i < barCount; i++) {
+            float barHeight = (values.get(first + i) / ticks.max) * usableHeight;
+            float barLeft = origin + (first + i) * stride;
+            rects[i * 4] = barLeft;
+            rects[i * 4 + 1] = bottom - barHeight;
+            rects[i * 4 + 2] = barLeft + barWidth;
+            rects[i * 4 + 3] = bottom;
+            labelPositions[i] = barLeft + barWidth / 2;
+        }
+
+        RenderSnapshot.Builder builder = new RenderSnapshot.Builder(sequence, width, height)
+                .plot(left, top, right, bottom)
+                .yTicks(ticks);
+        builder.barRects = rects;
+        builder.barCount = barCount;
+        builder.firstBar = first;
+        builder.xLabelPositions = labelPositions;
+        builder.zoomed = true;
+        return builder.build();
+    }
+
+    /** Largest useful {@code scrollOffset} for {@link #layoutWindow}: 0 when every bar fits. */
+    static float maxScroll(int width, int barCount, float barWidth, float barSpacing) {
+        float plotWidth = width - PADDING_LEFT - PADDING_RIGHT;
+        return Math.max(0f, BAR_SPACING_FROM_Y_AXIS + barCount * (barWidth + barSpacing) - plotWidth);
+    }
+}
@@ -0,0 +1,80 @@
+package dev.noash.graphlitelib;
+
+import java.util.List;
+
+/**
+ * Draws a laid-out bar chart through a {@link ChartRenderer}. Shared by {@code BarChartView} and the headless
+ * renderers so both produce the same picture.
+ */
+final class BarChartPainter {
+    static final int[] DEFAULT_GRADIENT = {0xFF3B82F6, 0xFF60A5FA};
+    static final float CORNER_RADIUS = 20f;
+    static final int AXIS_COLOR = 0xFFCCCCCC;
+    static final float AXIS_WIDTH = 3f;
+    static final int LABEL_COLOR = 0xFF444444;
+    static final float LABEL_TEXT_SIZE = 28f;
+    static final int VALUE_COLOR = 0xFF888888;
+    static final float VALUE_TEXT_SIZE = 26f;
+
+    private final TickLabels yTickLabels = new TickLabels();
+
+    /**
+     * @param barColors      solid colors for the first bars; the rest use {@code gradientColors}
+     */
+    void paint(ChartRenderer renderer, RenderSnapshot snapshot, List<String> labels, List<Integer> barColors,
+               int[] gradientColors) {
+        paint(renderer, snapshot, null, labels, barColors, gradientColors);
+    }
+
+    /** Same as the overload above, but leaves out bars whose {@code skip} flag is set. */
+    void paint(ChartRenderer renderer, RenderSnapshot snapshot, boolean[] skip, List<String> labels,
+               List<Integer> barColors, int[] gradientColors) {
+        float left = snapshot.plotLeft;
+        float top = snapshot.plotTop;
+        float bottom = snapshot.plotBottom;
+
+        if (snapshot.zoomed) {
+            renderer.pushClip(left, 0f, snapshot.plotRight, snapshot.height);
+        }
+        float[] rects = snapshot.barRects;
+        for (int i = 0; i < snapshot.barCount; i++) {
+            int bar = snapshot.firstBar + i;
+            if (skip == null || !skip[i]) {
+                paintBar(renderer, snapshot, rects, i, bar, barColors, gradientColors);
+            }
+
+            if (bar < labels.size()) {
+                renderer.drawText(labels.get(bar), snapshot.xLabelPositions[i], snapshot.height - 20f,
+                        LABEL_TEXT_SIZE, LABEL_COLOR, ChartRenderer.TextAlign.CENTER);
+            }
+        }
+        if (snapshot.zoomed) {
+            renderer.popClip();
+        }
+
+        renderer.drawLine(left + BarChartLayout.BAR_SPACING_FROM_Y_AXIS, bottom, snapshot.plotRight, bottom,
+                AXIS_COLOR, AXIS_WIDTH);
+        renderer.drawLine(left, top, left, bottom, AXIS_COLOR, AXIS_WIDTH);
+
+        yTickLabels.update(snapshot.yTickValues, snapshot.yTickStep, VALUE_TEXT_SIZE, renderer);
+        for (int i = 0; i < snapshot.yTickValues.length; i++) {
+            renderer.drawText(yTickLabels.text[i], 0, yTickLabels.lengths[i], left - 10f - yTickLabels.widths[i],
+                    snapshot.yTickPositions[i] + 10f, VALUE_TEXT_SIZE, VALUE_COLOR, ChartRenderer.TextAlign.LEFT);
+        }
+    }
+
+    /** Paints the bar at {@code index} of {@code rects} in the color of bar {@code colorIndex}. */
+    void paintBar(ChartRenderer renderer, RenderSnapshot snapshot, float[] rects, int index, int colorIndex,
+                  List<Integer> barColors, int[] gradientColors) {
+        float l = rects[index * 4];
+        float t = rects[index * 4 + 1];
+        float r = rects[index * 4 + 2];
+        float b = rects[index * 4 + 3];
+        if (colorIndex < barColors.size()) {
+            renderer.drawRoundRect(l, t, r, b, CORNER_RADIUS, barColors.get(colorIndex));
+        } else {
+            renderer.drawGradientRoundRect(l, t, r, b, CORNER_RADIUS, gradientColors, snapshot.plotTop,
+                    snapshot.plotBottom);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package dev.noash.graphlitelib;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Headless counterpart of a {@code BarChartView} configuration. */
+public class BarChartSpec extends ChartSpec {
+    private FloatSeries values = FloatSeries.empty();
+    private List<String> labels = new ArrayList<>();
+    private List<Integer> barColors = new ArrayList<>();
+    private int[] gradientColors = BarChartPainter.DEFAULT_GRADIENT;
+    private float barWidth = Float.NaN;
+    private float barSpacing = Float.NaN;
+
+    public BarChartSpec setSize(int width, int height) {
+        this.width = width;
+        this.height = height;
+        return this;
+    }
+
+    public BarChartSpec setValues(List<Float> values) {
+        this.values = FloatSeries.copyOf(values);
+        return this;
+    }
+
+    public BarChartSpec setValues(FloatSeries values) {
+        this.values = values != null ? values : FloatSeries.empty();
+        return this;
+    }
+
+    public BarChartSpec setLabels(List<String> labels) {
+        this.labels = labels != null ? labels : new ArrayList<>();
+        return this;
+    }
+
+    public BarChartSpec setBarColors(List<Integer> colors) {
+        this.barColors = colors != null ? colors : new ArrayList<>();
+        return this;
+    }
+
+    public BarChartSpec setBarWidth(float barWidthPx) {
+        this.barWidth = barWidthPx;
+        return this;
+    }
+
+    public BarChartSpec setBarSpacing(float barSpacingPx) {
+        this.barSpacing = barSpacingPx;
+        return this;
+    }
+
+    @Override
+    void paint(ChartRenderer renderer) {
+        if (values.isEmpty()) return;
+
+        RenderSnapshot snapshot = BarChartLayout.layout(0, width, height, values.snapshot(), barWidth, barSpacing);
+        new BarChartPainter().paint(renderer, snapshot, labels, barColors, gradientColors);
+    }
+}
@@ -0,0 +1,146 @@
+package dev.noash.graphlitelib;
+
+/**
+ * UI-side animation state of a bar chart. Each new bar either morphs from the bar it replaces or grows from the
+ * axis; bars that were removed shrink into it. Only bars that actually move are animated; the rest stay in the
+ * chart's cached layer. Arrays grow to the largest chart seen and are reused across transitions.
+ */
+final class BarTransition {
+    /** Left, top, right, bottom per bar from bar {@code first} on, as drawn on the last animation frame. */
+    float[] frame = new float[0];
+    /** Bars drawn from {@link #frame}; the others are painted into the cached layer. */
+    boolean[] moving = new boolean[0];
+    int first;
+    int count;
+
+    /** Removed bars as drawn on the last animation frame, and the index each had before the update. */
+    float[] exitFrame = new float[0];
+    int[] exitIndex = new int[0];
+    int exitCount;
+
+    /**
+     * Horizontal span animated bars cover over the transition, with room for an overshooting interpolator;
+     * {@code dirtyLeft > dirtyRight} when empty. Bars are columns, so the region is the full height of the plot.
+     */
+    float dirtyLeft;
+    float dirtyRight;
+
+    /** How far past its target an {@code OvershootInterpolator} can carry a bar, as a fraction of its travel. */
+    private static final float OVERSHOOT = 0.25f;
+
+    private float[] from = new float[0];
+    private boolean[] hasFrom = new boolean[0];
+    private int targetCount;
+    private boolean matched;
+    private float[] exitFrom = new float[0];
+    private boolean[] kept = new boolean[0];
+
+    /**
+     * Starts a transition from the bars on screen now.
+     *
+     * @param shown         rects currently drawn: {@code shownCount} bars starting at bar {@code shownFirst}
+     * @param previousIndex for each of the {@code newCount} new bars, the index of the bar it replaces, or -1 for
+     *                      an inserted bar; null matches bars by position
+     */
+    void startFrom(float[] shown, int shownFirst, int shownCount, int[] previousIndex, int newCount) {
+        if (from.length < newCount * 4) from = new float[newCount * 4];
+        if (hasFrom.length < newCount) hasFrom = new boolean[newCount];
+        if (kept.length < shownCount) kept = new boolean[shownCount];
+        for (int i = 0; i < shownCount; i++) {
+            kept[i] = false;
+        }
+        for (int i = 0; i < newCount; i++) {
+            int previous = previousIndex != null ? previousIndex[i] : i;
+            int slot = previous - shownFirst;
+            hasFrom[i] = previous >= 0 && slot >= 0 && slot < shownCount;
+            if (hasFrom[i]) {
+                System.arraycopy(shown, slot * 4, from, i * 4, 4);
+                kept[slot] = true;
+            }
+        }
+
+        exitCount = 0;
+        for (int i = 0; i < shownCount; i++) {
+            if (!kept[i]) exitCount++;
+        }
+        if (exitFrom.length < exitCount * 4) {
+            exitFrom = new float[exitCount * 4];
+            exitFrame = new float[exitCount * 4];
+            exitIndex = new int[exitCount];
+        }
+        for (int i = 0, e = 0; i < shownCount; i++) {
+            if (kept[i]) continue;
+            System.arraycopy(shown, i * 4, exitFrom, e * 4, 4);
+            exitIndex[e++] = shownFirst + i;
+        }
+        targetCount = newCount;
+        clearDirty();
+    }
+
+    /**
+     * Decides which bars of the new layout, {@code toCount} bars from bar {@code toFirst} on, move and computes the
+     * dirty span. Returns false if nothing changes on screen. A layout with bars the transition does not know, such
+     * as a stale one from a layout executor, grows every bar from the axis.
+     */
+    boolean prepare(float[] to, int toFirst, int toCount) {
+        first = toFirst;
+        count = toCount;
+        matched = toFirst + toCount <= targetCount;
+        if (frame.length < count * 4) frame = new float[count * 4];
+        if (moving.length < count) moving = new boolean[count];
+
+        clearDirty();
+        boolean any = exitCount > 0;
+        for (int i = 0; i < count; i++) {
+            int k = i * 4;
+            int f = (first + i) * 4;
+            boolean morph = matched && hasFrom[first + i];
+            moving[i] = !morph || from[f] != to[k] || from[f + 1] != to[k + 1] || from[f + 2] != to[k + 2]
+                    || from[f + 3] != to[k + 3];
+            if (!moving[i]) continue;
+            any = true;
+            include(to[k], to[k + 2]);
+            if (morph) {
+                include(from[f], from[f + 2]);
+                include(to[k] + (to[k] - from[f]) * OVERSHOOT, to[k + 2] + (to[k + 2] - from[f + 2]) * OVERSHOOT);
+            }
+        }
+        for (int e = 0; e < exitCount; e++) {
+            include(exitFrom[e * 4], exitFrom[e * 4 + 2]);
+        }
+        return any;
+    }
+
+    /** Fills {@link #frame} and {@link #exitFrame} for {@code fraction} of the way from the start to {@code to}. */
+    void interpolate(float[] to, float fraction) {
+        for (int i = 0; i < count; i++) {
+            int k = i * 4;
+            if (!moving[i]) {
+                System.arraycopy(to, k, frame, k, 4);
+                continue;
+            }
+            int f = (first + i) * 4;
+            boolean morph = matched && hasFrom[first + i];
+            for (int c = 0; c < 4; c++) {
+                // Inserted bars grow from their bottom edge.
+                float start = morph ? from[f + c] : c == 1 ? to[k + 3] : to[k + c];
+                frame[k + c] = start + (to[k + c] - start) * fraction;
+            }
+        }
+        for (int e = 0; e < exitCount; e++) {
+            int k = e * 4;
+            System.arraycopy(exitFrom, k, exitFrame, k, 4);
+            exitFrame[k + 1] = exitFrom[k + 1] + (exitFrom[k + 3] - exitFrom[k + 1]) * Math.min(1f, fraction);
+        }
+    }
+
+    private void clearDirty() {
+        dirtyLeft = Float.MAX_VALUE;
+        dirtyRight = -Float.MAX_VALUE;
+    }
+
+    private void include(float left, float right) {
+        dirtyLeft = Math.min(dirtyLeft, Math.min(left, right));
+        dirtyRight = Math.max(dirtyRight, Math.max(left, right));
+    }
+}
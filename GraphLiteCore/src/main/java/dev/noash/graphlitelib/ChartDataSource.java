@@ -0,0 +1,29 @@
+package dev.noash.graphlitelib;
+
+/**
+ * Pull-based source for histories too large to hold in memory, such as a database table or a file. Wrap it in a
+ * {@link PagedSeries} and chart that like any other series; the chart asks only for the range on screen, at about
+ * the resolution it can show.
+ */
+public interface ChartDataSource {
+
+    interface Callback {
+        /** Delivers one value per requested bucket; NaN marks a bucket without data. May be called on any thread. */
+        void onLoaded(float[] buckets);
+    }
+
+    /** Number of samples; must not change while a chart shows the source. */
+    int size();
+
+    /**
+     * Loads samples {@code [start, end)} reduced to {@code bucketCount} values, each summarizing an equal run of
+     * samples (for example their mean or maximum). Called on the thread that lays out the chart; load on a
+     * background thread and call {@code callback} when done.
+     */
+    void loadRange(int start, int end, int bucketCount, Callback callback);
+
+    /** Largest value in the whole source, if known cheaply, so the y axis does not rescale as pages arrive. */
+    default float maxValue() {
+        return Float.NaN;
+    }
+}
@@ -0,0 +1,50 @@
+package dev.noash.graphlitelib;
+
+/**
+ * Drawing backend for the chart painters. The Android views draw through a {@code Canvas} implementation; the
+ * headless module renders the same calls to SVG or {@code java.awt} images. Coordinates are in pixels, colors are
+ * ARGB ints and text is positioned by its baseline.
+ */
+public interface ChartRenderer {
+
+    enum TextAlign {
+        LEFT, CENTER, RIGHT
+    }
+
+    void drawLine(float x1, float y1, float x2, float y2, int color, float strokeWidth);
+
+    /**
+     * Strokes {@code count} interleaved x/y vertices. When {@code smooth} is set the line follows the quadratic
+     * segments of {@code LineSmoother} instead of straight lines.
+     */
+    void drawPolyline(float[] vertices, int count, boolean smooth, int color, float strokeWidth);
+
+    void drawCircle(float cx, float cy, float radius, int color);
+
+    /** Fills a circle at each of {@code count} interleaved x/y vertices. */
+    default void drawPoints(float[] vertices, int count, float radius, int color) {
+        for (int k = 0; k < count; k++) {
+            drawCircle(vertices[k * 2], vertices[k * 2 + 1], radius, color);
+        }
+    }
+
+    void drawRoundRect(float left, float top, float right, float bottom, float radius, int color);
+
+    /**
+     * Fills with a vertical gradient whose evenly spaced {@code colors} run from {@code gradientTop} down to
+     * {@code gradientBottom}.
+     */
+    void drawGradientRoundRect(float left, float top, float right, float bottom, float radius,
+                               int[] colors, float gradientTop, float gradientBottom);
+
+    void drawText(String text, float x, float y, float textSize, int color, TextAlign align);
+
+    void drawText(char[] text, int start, int count, float x, float y, float textSize, int color, TextAlign align);
+
+    float measureText(char[] text, int start, int count, float textSize);
+
+    /** Restricts drawing to a rectangle until the matching {@link #popClip()}. */
+    void pushClip(float left, float top, float right, float bottom);
+
+    void popClip();
+}
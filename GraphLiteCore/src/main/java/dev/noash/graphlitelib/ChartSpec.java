@@ -0,0 +1,24 @@
+package dev.noash.graphlitelib;
+
+/**
+ * Everything needed to draw one chart without a view, for rendering through any {@link ChartRenderer}.
+ * Specs are read, never modified, while rendering, so one spec can be rendered from several threads.
+ */
+public abstract class ChartSpec {
+    int width = 800;
+    int height = 480;
+
+    ChartSpec() {
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /** Lays the chart out and draws it; painter state is local to the call. */
+    abstract void paint(ChartRenderer renderer);
+}
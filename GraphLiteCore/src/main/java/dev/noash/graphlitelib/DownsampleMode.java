@@ -0,0 +1,10 @@
+package dev.noash.graphlitelib;
+
+public enum DownsampleMode {
+    /** Every sample is drawn. */
+    NONE,
+    /** Keeps the minimum and maximum of each pixel bucket, so spikes are never lost. */
+    MIN_MAX,
+    /** Largest-Triangle-Three-Buckets: keeps the visual shape with fewer points. */
+    LTTB
+}
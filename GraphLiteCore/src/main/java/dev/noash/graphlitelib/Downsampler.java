@@ -0,0 +1,140 @@
+package dev.noash.graphlitelib;
+
+/**
+ * Reduces a series to a bounded number of sample indices.
+ * Indices (not values) are returned so callers keep the original x positions.
+ */
+final class Downsampler {
+
+    private Downsampler() {
+    }
+
+    /**
+     * Writes the indices to keep into {@code out} and returns how many were written.
+     * {@code out} must hold at least {@code targetPoints} entries.
+     */
+    static int sample(FloatSeries data, DownsampleMode mode, int targetPoints, int[] out) {
+        return sample(data, null, mode, targetPoints, out);
+    }
+
+    /**
+     * Like {@link #sample(FloatSeries, DownsampleMode, int, int[])}, with sample {@code i} at x {@code times.get(i)}:
+     * buckets then cover equal time spans and LTTB measures areas in time, so gaps and uneven rates are kept as they
+     * are. Null {@code times} means evenly spaced samples.
+     */
+    static int sample(FloatSeries data, Timestamps times, DownsampleMode mode, int targetPoints, int[] out) {
+        int size = data.size();
+        if (mode == DownsampleMode.NONE || size <= targetPoints || targetPoints < 3) {
+            int count = Math.min(size, out.length);
+            for (int i = 0; i < count; i++) out[i] = i;
+            return count;
+        }
+        // Min/max needs room for both endpoints plus one bucket pair; below that LTTB still fits.
+        if (mode == DownsampleMode.MIN_MAX && targetPoints >= 4) {
+            return minMax(data, times, targetPoints, out);
+        }
+        return lttb(data, times, targetPoints, out);
+    }
+
+    /**
+     * First index of bucket {@code b} of {@code buckets} over the inner samples {@code [1, size - 1)}: equal counts,
+     * or equal time spans when {@code times} is set. Callers clamp the result as for equal counts.
+     */
+    private static int bucketStart(int size, Timestamps times, int b, int buckets) {
+        if (times == null) return 1 + (int) (b * ((double) (size - 2) / buckets));
+        if (b > buckets) return size;
+        if (b == buckets) return size - 1;
+        long first = times.first();
+        long time = first + (long) ((double) (times.last() - first) * b / buckets);
+        return Math.max(1, Math.min(size - 1, times.ceilIndex(time)));
+    }
+
+    private static double x(Timestamps times, int i) {
+        return times == null ? i : times.get(i) - times.first();
+    }
+
+    static int minMax(FloatSeries data, Timestamps times, int targetPoints, int[] out) {
+        int size = data.size();
+        int buckets = Math.max(1, (targetPoints - 2) / 2);
+        int count = 0;
+        out[count++] = 0;
+
+        for (int b = 0; b < buckets; b++) {
+            int start = bucketStart(size, times, b, buckets);
+            int end = Math.min(size - 1, bucketStart(size, times, b + 1, buckets));
+            if (start >= end) continue;
+
+            int minIndex = start;
+            int maxIndex = start;
+            float min = data.get(start);
+            float max = min;
+            for (int i = start + 1; i < end; i++) {
+                float v = data.get(i);
+                if (v < min) {
+                    min = v;
+                    minIndex = i;
+                } else if (v > max) {
+                    max = v;
+                    maxIndex = i;
+                }
+            }
+
+            if (minIndex == maxIndex) {
+                out[count++] = minIndex;
+            } else {
+                out[count++] = Math.min(minIndex, maxIndex);
+                out[count++] = Math.max(minIndex, maxIndex);
+            }
+        }
+
+        out[count++] = size - 1;
+        return count;
+    }
+
+    static int lttb(FloatSeries data, Timestamps times, int targetPoints, int[] out) {
+        int size = data.size();
+        int buckets = targetPoints - 2;
+        int count = 0;
+        int selected = 0;
+        out[count++] = 0;
+
+        for (int b = 0; b < buckets; b++) {
+            int start = bucketStart(size, times, b, buckets);
+            int end = Math.min(size - 1, bucketStart(size, times, b + 1, buckets));
+
+            int nextStart = end;
+            int nextEnd = Math.min(size, bucketStart(size, times, b + 2, buckets));
+            if (nextEnd <= nextStart) nextEnd = Math.min(size, nextStart + 1);
+
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += x(times, i);
+                avgY += data.get(i);
+            }
+            int nextCount = nextEnd - nextStart;
+            avgX /= nextCount;
+            avgY /= nextCount;
+
+            double ax = x(times, selected);
+            double ay = data.get(selected);
+            double maxArea = -1;
+            int maxIndex = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((ax - avgX) * (data.get(i) - ay) - (ax - x(times, i)) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+
+            if (start < end) {
+                out[count++] = maxIndex;
+                selected = maxIndex;
+            }
+        }
+
+        out[count++] = size - 1;
+        return count;
+    }
+}
@@ -0,0 +1,99 @@
+package dev.noash.graphlitelib;
+
+import java.util.List;
+
+/**
+ * Read-only sequence of primitive float samples used as chart input.
+ * Implementations never box values, so charts can scan large series every frame without GC churn.
+ */
+public abstract class FloatSeries {
+
+    private static final FloatSeries EMPTY = new ArrayFloatSeries(new float[0], 0, 0);
+
+    public abstract int size();
+
+    public abstract float get(int index);
+
+    /** Changes whenever the contents change; immutable series always return 0. */
+    public long version() {
+        return 0;
+    }
+
+    /**
+     * Returns a series with the current contents that stays valid while this one keeps changing.
+     * Series that never change in place return themselves.
+     */
+    public FloatSeries snapshot() {
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public float min() {
+        return min(0, size());
+    }
+
+    public float max() {
+        return max(0, size());
+    }
+
+    public float min(int from, int to) {
+        float min = Float.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            float v = get(i);
+            if (v < min) min = v;
+        }
+        return min;
+    }
+
+    public float max(int from, int to) {
+        float max = Float.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            float v = get(i);
+            if (v > max) max = v;
+        }
+        return max;
+    }
+
+    public void copyTo(int from, float[] dst, int dstOffset, int count) {
+        for (int i = 0; i < count; i++) {
+            dst[dstOffset + i] = get(from + i);
+        }
+    }
+
+    public float[] toArray() {
+        float[] out = new float[size()];
+        copyTo(0, out, 0, out.length);
+        return out;
+    }
+
+    public static FloatSeries empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Wraps the array without copying. After writing to the array in place, call
+     * {@link GraphLine#invalidateData()} so line charts drop their cached geometry.
+     */
+    public static FloatSeries of(float... values) {
+        return new ArrayFloatSeries(values, 0, values.length);
+    }
+
+    public static FloatSeries of(float[] values, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > values.length) {
+            throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + length + ", array=" + values.length);
+        }
+        return new ArrayFloatSeries(values, offset, length);
+    }
+
+    public static FloatSeries copyOf(List<Float> values) {
+        if (values == null || values.isEmpty()) return EMPTY;
+        float[] data = new float[values.size()];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = values.get(i);
+        }
+        return new ArrayFloatSeries(data, 0, data.length);
+    }
+}
@@ -0,0 +1,240 @@
+package dev.noash.graphlitelib;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class GraphLine {
+    interface DataListener {
+        void onDataChanged(GraphLine line);
+    }
+
+    private FloatSeries values;
+    private Timestamps timestamps;
+    /** ARGB color; opaque black by default. */
+    public int color = 0xFF000000;
+    public boolean showPoints = false;
+    public boolean smoothLine = false;
+    public float lineWidth = 4f;
+    public float pointRadius = 6f;
+    public String title = null;
+    public DownsampleMode downsampleMode = DownsampleMode.NONE;
+
+    private final List<DataListener> listeners = new ArrayList<>(1);
+    private long dataVersion;
+    private IngestBuffer ingest;
+    /** Set by an attached chart to request a frame; called from producer threads. */
+    volatile Runnable frameRequest;
+
+    public static GraphLine streaming(int capacity) {
+        return new GraphLine(new RingFloatSeries(capacity));
+    }
+
+    public GraphLine(List<Float> values) {
+        this(FloatSeries.copyOf(values));
+    }
+
+    public GraphLine(float[] values) {
+        this(FloatSeries.of(values));
+    }
+
+    public GraphLine(FloatSeries values) {
+        this.values = values != null ? values : FloatSeries.empty();
+    }
+
+    public FloatSeries getValues() {
+        return values;
+    }
+
+    public GraphLine setValues(List<Float> values) {
+        return setValues(FloatSeries.copyOf(values));
+    }
+
+    /**
+     * Replaces the samples. Timestamps are kept only while they still match one to one: they are dropped when the new
+     * values have a different size or are streaming; set them again with {@link #setTimestamps}.
+     */
+    public GraphLine setValues(FloatSeries values) {
+        this.values = values != null ? values : FloatSeries.empty();
+        if (timestamps != null && (timestamps.size() != this.values.size() || isStreaming())) timestamps = null;
+        notifyDataChanged();
+        return this;
+    }
+
+    public Timestamps getTimestamps() {
+        return timestamps;
+    }
+
+    public GraphLine setTimestamps(long[] timestamps) {
+        return setTimestamps(timestamps != null ? Timestamps.of(timestamps) : null);
+    }
+
+    /**
+     * Places sample {@code i} at {@code timestamps.get(i)} instead of at slot {@code i}. Once the first line of a
+     * chart has timestamps, its x axis is time: timestamped lines with different rates and gaps line up by time,
+     * and lines without timestamps are spread evenly over the time range. Pass null for evenly spaced samples.
+     * Streaming lines cannot have timestamps, since appends would leave them behind.
+     */
+    public GraphLine setTimestamps(Timestamps timestamps) {
+        if (timestamps != null && isStreaming()) {
+            throw new IllegalStateException("streaming lines cannot have timestamps");
+        }
+        if (timestamps != null && timestamps.size() != values.size()) {
+            throw new IllegalArgumentException("expected " + values.size() + " timestamps, got " + timestamps.size());
+        }
+        this.timestamps = timestamps;
+        notifyDataChanged();
+        return this;
+    }
+
+    public GraphLine setColor(int color) {
+        this.color = color;
+        return this;
+    }
+    public GraphLine setTitle(String title) {
+        this.title = title;
+        return this;
+    }
+
+    public GraphLine setShowPoints(boolean showPoints) {
+        this.showPoints = showPoints;
+        return this;
+    }
+
+    public GraphLine setSmoothLine(boolean smoothLine) {
+        this.smoothLine = smoothLine;
+        return this;
+    }
+
+    public GraphLine setLineWidth(float lineWidth) {
+        this.lineWidth = lineWidth;
+        return this;
+    }
+
+    public GraphLine setPointRadius(float pointRadius) {
+        this.pointRadius = pointRadius;
+        return this;
+    }
+
+    public GraphLine setDownsampleMode(DownsampleMode downsampleMode) {
+        this.downsampleMode = downsampleMode != null ? downsampleMode : DownsampleMode.NONE;
+        notifyDataChanged();
+        return this;
+    }
+
+    /**
+     * Turns this line into a sliding window of the last {@code capacity} samples, keeping the newest current values.
+     * Not allowed while the line has timestamps; clear them with {@code setTimestamps((Timestamps) null)} first.
+     */
+    public GraphLine setStreamingCapacity(int capacity) {
+        if (timestamps != null) {
+            throw new IllegalStateException("timestamped lines cannot stream; clear the timestamps first");
+        }
+        RingFloatSeries ring = new RingFloatSeries(capacity);
+        int keep = Math.min(values.size(), capacity);
+        for (int i = values.size() - keep; i < values.size(); i++) {
+            ring.append(values.get(i));
+        }
+        this.values = ring;
+        notifyDataChanged();
+        return this;
+    }
+
+    public boolean isStreaming() {
+        return values instanceof RingFloatSeries;
+    }
+
+    /** Appends one sample. Must be called on the main thread; charts redraw at most once per frame. */
+    public GraphLine append(float value) {
+        streamingBuffer().append(value);
+        notifyDataChanged();
+        return this;
+    }
+
+    public GraphLine appendBatch(float[] values) {
+        return appendBatch(values, 0, values.length);
+    }
+
+    public GraphLine appendBatch(float[] values, int offset, int length) {
+        streamingBuffer().append(values, offset, length);
+        notifyDataChanged();
+        return this;
+    }
+
+    /**
+     * Thread-safe producer side of this streaming line, holding up to one window of samples per frame. Create it on
+     * the main thread, then offer samples from any thread; charts append them to the line once per frame.
+     */
+    public IngestBuffer ingest() {
+        if (ingest == null) ingest = new IngestBuffer(streamingBuffer().capacity(), this::requestFrame);
+        return ingest;
+    }
+
+    private void requestFrame() {
+        Runnable request = frameRequest;
+        if (request != null) request.run();
+    }
+
+    /** Appends the samples producers offered since the last frame. Main thread; true if any arrived. */
+    boolean drainIngest() {
+        if (ingest == null || !(values instanceof RingFloatSeries)) return false;
+        if (ingest.drainTo((RingFloatSeries) values) == 0) return false;
+        notifyDataChanged();
+        return true;
+    }
+
+    /** Drops all samples from a streaming line. */
+    public GraphLine clear() {
+        streamingBuffer().clear();
+        notifyDataChanged();
+        return this;
+    }
+
+    private RingFloatSeries streamingBuffer() {
+        if (!(values instanceof RingFloatSeries)) {
+            throw new IllegalStateException("GraphLine is not streaming; call setStreamingCapacity first");
+        }
+        return (RingFloatSeries) values;
+    }
+
+    /**
+     * Tells attached charts that the samples were modified in place, e.g. after writing into an array
+     * wrapped with {@link FloatSeries#of(float...)}, so cached geometry is rebuilt.
+     */
+    public GraphLine invalidateData() {
+        notifyDataChanged();
+        return this;
+    }
+
+    /** Copy with the current samples and style, safe to read on another thread while this line changes. */
+    GraphLine copy() {
+        GraphLine copy = new GraphLine(values.snapshot());
+        copy.timestamps = timestamps;
+        copy.color = color;
+        copy.showPoints = showPoints;
+        copy.smoothLine = smoothLine;
+        copy.lineWidth = lineWidth;
+        copy.pointRadius = pointRadius;
+        copy.title = title;
+        copy.downsampleMode = downsampleMode;
+        return copy;
+    }
+
+    long dataVersion() {
+        return dataVersion;
+    }
+
+    void addDataListener(DataListener listener) {
+        if (!listeners.contains(listener)) listeners.add(listener);
+    }
+
+    void removeDataListener(DataListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyDataChanged() {
+        dataVersion++;
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onDataChanged(this);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package dev.noash.graphlitelib;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free channel from producer threads into a streaming {@link GraphLine}. Producers {@link #offer} samples from
+ * any thread into a bounded ring of slots; once per frame the chart appends the samples whose copy has completed to
+ * the line on the main thread. A slot a producer has reserved but not yet filled ends the batch, and it and everything
+ * after it wait for the next frame, so a slow producer never stalls drawing. Samples offered while the ring is full
+ * are dropped and counted in {@link #dropped()}.
+ *
+ * <p>Obtain one from {@link GraphLine#ingest()}.
+ */
+public final class IngestBuffer {
+    private final float[] slots;
+    /** Per slot, one past the position of the sample last published in it; 0 while never written. */
+    private final AtomicLongArray published;
+    /** Next position producers reserve. */
+    private final AtomicLong head = new AtomicLong();
+    /** Next position the chart reads; only the draining thread moves it. */
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Runnable onFirstSample;
+    private volatile long sequence;
+
+    IngestBuffer(int capacity, Runnable onFirstSample) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        slots = new float[capacity];
+        published = new AtomicLongArray(capacity);
+        this.onFirstSample = onFirstSample;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /** Offers one sample; false if the ring is full until the next frame. Thread-safe, never blocks. */
+    public boolean offer(float value) {
+        while (true) {
+            long h = head.get();
+            if (h - tail.get() >= capacity()) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            if (head.compareAndSet(h, h + 1)) {
+                publish(h, value);
+                requestFrameIfFirst(h);
+                return true;
+            }
+        }
+    }
+
+    /** Offers {@code length} samples in order; returns how many fit. Thread-safe, never blocks. */
+    public int offer(float[] values, int offset, int length) {
+        while (true) {
+            long h = head.get();
+            int accepted = (int) Math.min(length, capacity() - (h - tail.get()));
+            if (accepted <= 0) {
+                dropped.addAndGet(length);
+                return 0;
+            }
+            if (head.compareAndSet(h, h + accepted)) {
+                for (int i = 0; i < accepted; i++) {
+                    publish(h + i, values[offset + i]);
+                }
+                if (accepted < length) dropped.addAndGet(length - accepted);
+                requestFrameIfFirst(h);
+                return accepted;
+            }
+        }
+    }
+
+    private void publish(long position, float value) {
+        int slot = (int) (position % slots.length);
+        slots[slot] = value;
+        // The volatile store orders the sample before the flag the consumer checks.
+        published.set(slot, position + 1);
+    }
+
+    /**
+     * Requests a frame once the chart has read everything before {@code position}. Checked after publishing: either
+     * the chart sees the sample when it re-checks its stopping slot, or this sees the chart stopped there.
+     */
+    private void requestFrameIfFirst(long position) {
+        if (tail.get() >= position) onFirstSample.run();
+    }
+
+    /** Number of frames that appended samples so far. */
+    public long sequence() {
+        return sequence;
+    }
+
+    /** Samples rejected because the ring was full. */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Appends the samples published since the last call to {@code target}, stopping at the first slot a producer is
+     * still filling. Single consumer: only the thread that draws the chart calls this. Returns the number of samples
+     * appended.
+     */
+    int drainTo(RingFloatSeries target) {
+        long t = tail.get();
+        long end = t;
+        while (published.get((int) (end % slots.length)) == end + 1) {
+            target.append(slots[(int) (end % slots.length)]);
+            end++;
+        }
+        int count = (int) (end - t);
+        if (count > 0) {
+            tail.set(end);
+            sequence++;
+        }
+        // A producer that finished after the loop looked at its slot may have missed the new tail; ask again for it.
+        if (published.get((int) (end % slots.length)) == end + 1) onFirstSample.run();
+        return count;
+    }
+}
@@ -0,0 +1,139 @@
+package dev.noash.graphlitelib;
+
+/**
+ * Builds label text into a reusable char buffer so drawing code can format numbers without allocating.
+ * Use with {@code Canvas.drawText(char[], int, int, float, float, Paint)}.
+ */
+final class LabelFormatter {
+    private static final char[] NAN = "NaN".toCharArray();
+    private static final char[] INFINITY = "Infinity".toCharArray();
+    private static final double MAX_EXACT = 0x1p53;
+    private static final double[] COMPACT_SCALES = {1e9, 1e6, 1e3};
+    private static final char[] COMPACT_SUFFIXES = {'B', 'M', 'K'};
+    private static final int MAX_DECIMALS = 3;
+
+    char[] buffer = new char[32];
+    int length;
+
+    LabelFormatter clear() {
+        length = 0;
+        return this;
+    }
+
+    LabelFormatter append(String text) {
+        int count = text.length();
+        ensureCapacity(length + count);
+        text.getChars(0, count, buffer, length);
+        length += count;
+        return this;
+    }
+
+    /**
+     * Appends {@code value} rounded half-up to a whole number, producing the same text as
+     * {@code String.format("%.0f", value)}, including {@code "-0"} for small negative values.
+     */
+    LabelFormatter appendRounded(float value) {
+        if (Float.isNaN(value)) return append(NAN);
+        if (Float.floatToRawIntBits(value) < 0) append('-');
+        if (Float.isInfinite(value)) return append(INFINITY);
+
+        double abs = Math.abs((double) value);
+        if (abs >= MAX_EXACT) {
+            // Floats this large are whole numbers already; too rare in charts to avoid the allocation.
+            return append(new java.math.BigDecimal(Double.toString(abs)).toPlainString());
+        }
+        return appendDigits((long) Math.floor(abs + 0.5));
+    }
+
+    /**
+     * Appends {@code value} in compact notation such as {@code 950}, {@code 1.5K} or {@code 3.4M}. Shows as many
+     * decimals (up to three) as {@code step} needs to tell neighbouring ticks apart, without trailing zeros.
+     */
+    LabelFormatter appendCompact(float value, float step) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) return appendRounded(value);
+
+        double abs = Math.abs((double) value);
+        double scale = 1;
+        char suffix = 0;
+        for (int i = 0; i < COMPACT_SCALES.length; i++) {
+            if (abs >= COMPACT_SCALES[i]) {
+                scale = COMPACT_SCALES[i];
+                suffix = COMPACT_SUFFIXES[i];
+                break;
+            }
+        }
+
+        double scaledStep = Math.abs(step) / scale;
+        int decimals = 0;
+        long factor = 1;
+        while (decimals < MAX_DECIMALS && !isWhole(scaledStep * factor)) {
+            decimals++;
+            factor *= 10;
+        }
+
+        double scaled = abs / scale * factor;
+        if (scaled >= MAX_EXACT) return appendRounded(value);
+        long units = (long) Math.floor(scaled + 0.5);
+        if (units == 0) return append('0');
+
+        if (value < 0) append('-');
+        appendDigits(units / factor);
+        long fraction = units % factor;
+        if (fraction != 0) {
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                decimals--;
+            }
+            append('.');
+            int start = length;
+            appendDigits(fraction);
+            int padding = decimals - (length - start);
+            if (padding > 0) {
+                // Restore leading zeros dropped by appendDigits, e.g. 0.05.
+                ensureCapacity(length + padding);
+                System.arraycopy(buffer, start, buffer, start + padding, length - start);
+                for (int i = 0; i < padding; i++) buffer[start + i] = '0';
+                length += padding;
+            }
+        }
+        if (suffix != 0) append(suffix);
+        return this;
+    }
+
+    private static boolean isWhole(double value) {
+        return Math.abs(value - Math.rint(value)) < 1e-6 * Math.max(1, Math.abs(value));
+    }
+
+    private LabelFormatter append(char c) {
+        ensureCapacity(length + 1);
+        buffer[length++] = c;
+        return this;
+    }
+
+    private LabelFormatter append(char[] chars) {
+        ensureCapacity(length + chars.length);
+        System.arraycopy(chars, 0, buffer, length, chars.length);
+        length += chars.length;
+        return this;
+    }
+
+    private LabelFormatter appendDigits(long value) {
+        int digits = 1;
+        for (long v = value / 10; v > 0; v /= 10) digits++;
+        ensureCapacity(length + digits);
+        for (int i = length + digits - 1; i >= length; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+        return this;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            char[] grown = new char[Math.max(capacity, buffer.length * 2)];
+            System.arraycopy(buffer, 0, grown, 0, length);
+            buffer = grown;
+        }
+    }
+}
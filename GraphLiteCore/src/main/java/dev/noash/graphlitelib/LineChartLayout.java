@@ -0,0 +1,466 @@
+package dev.noash.graphlitelib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Pure-Java layout stage of {@code LineChartView}: turns line data and a view size into a {@link RenderSnapshot}.
+ * Keeps per-line caches between passes, so it must not run concurrently with itself. With a {@link #pool} set, each
+ * line's min/max scan and downsampling, then its vertex packing, run as separate fork-join tasks; only merging the
+ * y range and paged lines stay on the calling thread.
+ */
+final class LineChartLayout {
+    static final float PADDING_LEFT = 80f;
+    static final float PADDING_RIGHT = 40f;
+    static final float PADDING_TOP = 40f;
+    static final float PADDING_BOTTOM = 60f;
+    static final float SAMPLES_PER_PIXEL = 2f;
+
+    /** Everything the layout reads, captured on the UI thread. */
+    static final class Input {
+        final long sequence;
+        final int width;
+        final int height;
+        final List<GraphLine> lines;
+        final FloatSeries[] series;
+        final DownsampleMode[] modes;
+        final long[] versions;
+        final int slots;
+        final int xLabelCount;
+        final int yLabelCount;
+        /** Visible slot range; {@code [0, fullSpan]} shows everything. */
+        final float viewStart;
+        final float viewEnd;
+        /**
+         * Per-line timestamps, all null unless the first line has some. On a timestamped chart a slot coordinate is
+         * the time since {@code timeStart}, and {@code fullSpan} the time the lines cover.
+         */
+        final Timestamps[] times;
+        final long timeStart;
+        final float fullSpan;
+        /** Live series and their versions, so caches survive the per-pass copy of streaming data. */
+        final FloatSeries[] sources;
+        final long[] sourceVersions;
+        /** Streaming lines: ring position of sample 0 of the copy; see {@link RingFloatSeries#firstPosition}. */
+        final long[] firstPositions;
+
+        Input(long sequence, int width, int height, List<GraphLine> lines, int slots, int xLabelCount,
+              int yLabelCount) {
+            this(sequence, width, height, lines, slots, xLabelCount, yLabelCount, 0f, Float.NaN);
+        }
+
+        Input(long sequence, int width, int height, List<GraphLine> lines, int slots, int xLabelCount, int yLabelCount,
+              float viewStart, float viewEnd) {
+            this.sequence = sequence;
+            this.width = width;
+            this.height = height;
+            this.slots = slots;
+            this.xLabelCount = xLabelCount;
+            this.yLabelCount = yLabelCount;
+            this.viewStart = viewStart;
+
+            int count = lines.size();
+            this.lines = Collections.unmodifiableList(new ArrayList<>(lines));
+            series = new FloatSeries[count];
+            modes = new DownsampleMode[count];
+            versions = new long[count];
+            sources = new FloatSeries[count];
+            sourceVersions = new long[count];
+            firstPositions = new long[count];
+            for (int i = 0; i < count; i++) {
+                GraphLine line = lines.get(i);
+                sources[i] = line.getValues();
+                sourceVersions[i] = sources[i].version();
+                if (sources[i] instanceof RingFloatSeries) {
+                    firstPositions[i] = ((RingFloatSeries) sources[i]).firstPosition();
+                }
+                series[i] = sources[i].snapshot();
+                modes[i] = line.downsampleMode;
+                versions[i] = line.dataVersion();
+            }
+            times = new Timestamps[count];
+            if (count > 0 && isTimed(lines.get(0))) {
+                for (int i = 0; i < count; i++) {
+                    times[i] = isTimed(lines.get(i)) ? lines.get(i).getTimestamps() : null;
+                }
+            }
+            timeStart = timeStart(lines);
+            fullSpan = fullSpan(lines, slots);
+            this.viewEnd = Float.isNaN(viewEnd) ? fullSpan : viewEnd;
+        }
+
+        boolean zoomed() {
+            return viewStart > 0f || viewEnd < fullSpan;
+        }
+
+        /** Slot coordinate of sample {@code i} of line {@code l}. */
+        float slotOf(int l, int i) {
+            Timestamps t = times[l];
+            if (t != null) return t.get(i) - timeStart;
+            return timed() ? i * untimedStep(l) : i;
+        }
+
+        /** Last sample of line {@code l} at or before {@code slot}; may be -1. */
+        int floorIndex(int l, float slot) {
+            Timestamps t = times[l];
+            if (t != null) return t.floorIndex(timeStart + (long) Math.floor(slot));
+            float step = timed() ? untimedStep(l) : 1f;
+            return step > 0f ? (int) Math.floor(slot / step) : 0;
+        }
+
+        /** First sample of line {@code l} at or after {@code slot}; may be past the end. */
+        int ceilIndex(int l, float slot) {
+            Timestamps t = times[l];
+            if (t != null) return t.ceilIndex(timeStart + (long) Math.ceil(slot));
+            float step = timed() ? untimedStep(l) : 1f;
+            return step > 0f ? (int) Math.ceil(slot / step) : 0;
+        }
+
+        boolean timed() {
+            return times.length > 0 && times[0] != null;
+        }
+
+        /** Lines without timestamps on a timestamped chart are spread evenly over the whole time range. */
+        private float untimedStep(int l) {
+            int size = series[l].size();
+            return size > 1 ? fullSpan / (size - 1) : 0f;
+        }
+    }
+
+    /** True when {@code line} has a timestamp for each sample. */
+    static boolean isTimed(GraphLine line) {
+        Timestamps t = line.getTimestamps();
+        return t != null && t.size() > 0 && t.size() == line.getValues().size();
+    }
+
+    /** Time at slot coordinate 0: the earliest timestamp of any line, or 0 when the first line has none. */
+    static long timeStart(List<GraphLine> lines) {
+        if (lines.isEmpty() || !isTimed(lines.get(0))) return 0;
+        long start = Long.MAX_VALUE;
+        for (int i = 0; i < lines.size(); i++) {
+            if (isTimed(lines.get(i))) start = Math.min(start, lines.get(i).getTimestamps().first());
+        }
+        return start;
+    }
+
+    /** Slot coordinate of the right edge of the full view: the time all lines cover, or the slots minus one. */
+    static float fullSpan(List<GraphLine> lines, int slots) {
+        if (lines.isEmpty() || !isTimed(lines.get(0))) return Math.max(0, slots - 1);
+        long end = Long.MIN_VALUE;
+        for (int i = 0; i < lines.size(); i++) {
+            if (isTimed(lines.get(i))) end = Math.max(end, lines.get(i).getTimestamps().last());
+        }
+        return end - timeStart(lines);
+    }
+
+    /** Sample slots across the x axis: a streaming line reserves its whole window, anything else its size. */
+    static int slotsFor(FloatSeries reference) {
+        return reference instanceof RingFloatSeries ? ((RingFloatSeries) reference).capacity() : reference.size();
+    }
+
+    private static final class LineCache {
+        final SampledSeries sampled = new SampledSeries();
+        float[] vertices = new float[0];
+        int vertexCount;
+        float max;
+
+        MinMaxPyramid pyramid;
+        /** Used instead of {@link #pyramid} for streaming lines, so appends only update the new tail. */
+        RingMinMaxPyramid ringPyramid;
+        FloatSeries pyramidSource;
+        int pyramidSize = -1;
+        long pyramidVersion = -1;
+        long pyramidLineVersion = -1;
+        int[] windowIndices = new int[0];
+        /** Origin of the last paged pass; the pan direction decides which page to prefetch. */
+        float pagedOrigin = Float.NaN;
+
+        /**
+         * Builds the pyramid once per data change; panning and zooming only query it. Streaming lines update theirs
+         * with the samples appended since the last pass.
+         */
+        boolean updatePyramid(Input input, int l) {
+            FloatSeries source = input.sources[l];
+            FloatSeries data = input.series[l];
+            if ((pyramid != null || ringPyramid != null) && source == pyramidSource && data.size() == pyramidSize
+                    && input.sourceVersions[l] == pyramidVersion && input.versions[l] == pyramidLineVersion) {
+                return false;
+            }
+            if (source instanceof RingFloatSeries) {
+                int capacity = ((RingFloatSeries) source).capacity();
+                if (source != pyramidSource || ringPyramid == null || ringPyramid.capacity() != capacity) {
+                    ringPyramid = new RingMinMaxPyramid(capacity);
+                }
+                ringPyramid.update(data, input.firstPositions[l]);
+                pyramid = null;
+            } else {
+                pyramid = new MinMaxPyramid(data);
+                ringPyramid = null;
+            }
+            pyramidSource = source;
+            pyramidSize = data.size();
+            pyramidVersion = input.sourceVersions[l];
+            pyramidLineVersion = input.versions[l];
+            return true;
+        }
+    }
+
+    private static final int PREPARE = 0;
+    private static final int PACK = 1;
+
+    /** State of one layout pass shared by its line tasks: sizes first, then the scale once the y range is known. */
+    private static final class Pass {
+        final Input input;
+        final boolean zoomed;
+        final boolean[] resampled;
+        int targetPoints;
+        int buckets;
+        float left;
+        float top;
+        float height;
+        float origin;
+        float xStep;
+        float range;
+        boolean relayout;
+
+        Pass(Input input) {
+            this.input = input;
+            zoomed = input.zoomed();
+            resampled = new boolean[input.series.length];
+        }
+    }
+
+    private final List<LineCache> lines = new ArrayList<>();
+    /** Pool for per-line preparation; null prepares lines one after another on the calling thread. */
+    volatile ForkJoinPool pool;
+    private float lastLeft;
+    private float lastTop;
+    private float lastHeight;
+    private float lastStep;
+    private float lastOrigin;
+    private float lastRange;
+    private long lastTimeStart;
+    private float[] placeholders = new float[0];
+    private int placeholderCount;
+
+    RenderSnapshot layout(Input input) {
+        float left = PADDING_LEFT;
+        float top = PADDING_TOP;
+        float right = input.width - PADDING_RIGHT;
+        float bottom = input.height - PADDING_BOTTOM;
+        float usableWidth = right - left;
+        float usableHeight = bottom - top;
+
+        int lineCount = input.series.length;
+        while (lines.size() > lineCount) lines.remove(lines.size() - 1);
+        while (lines.size() < lineCount) lines.add(new LineCache());
+
+        Pass pass = new Pass(input);
+        pass.targetPoints = Math.max(3, Math.round(usableWidth * SAMPLES_PER_PIXEL));
+        pass.buckets = Math.max(1, Math.round(usableWidth));
+        boolean zoomed = pass.zoomed;
+        runLines(pass, PREPARE);
+        float maxValue = Float.MIN_VALUE;
+        for (int l = 0; l < lineCount; l++) {
+            LineCache cache = lines.get(l);
+            if (input.series[l] instanceof PagedSeries) {
+                // Pages arrive between passes, so the paged maximum is read every time.
+                cache.max = input.series[l].max();
+            }
+            if (cache.max > maxValue) maxValue = cache.max;
+        }
+
+        float origin = zoomed ? input.viewStart : 0f;
+        float span = zoomed ? input.viewEnd - input.viewStart : input.fullSpan;
+        float xStep = span > 0f ? usableWidth / span : 0f;
+        AxisTicks ticks = AxisTicks.compute(maxValue, input.yLabelCount);
+        float range = ticks.max;
+        pass.left = left;
+        pass.top = top;
+        pass.height = usableHeight;
+        pass.origin = origin;
+        pass.xStep = xStep;
+        pass.range = range;
+        pass.relayout = left != lastLeft || top != lastTop || usableHeight != lastHeight
+                || xStep != lastStep || origin != lastOrigin || range != lastRange || input.timeStart != lastTimeStart;
+
+        RenderSnapshot.Builder builder = new RenderSnapshot.Builder(input.sequence, input.width, input.height)
+                .plot(left, top, right, bottom)
+                .yTicks(ticks);
+        builder.xStep = xStep;
+        builder.xOrigin = origin;
+        builder.fullSpan = input.fullSpan;
+        builder.timeStart = input.timeStart;
+        builder.zoomed = zoomed;
+        builder.lineVertices = new float[lineCount][];
+        builder.lineVertexCounts = new int[lineCount];
+        builder.lines = input.lines;
+
+        runLines(pass, PACK);
+        placeholderCount = 0;
+        for (int l = 0; l < lineCount; l++) {
+            LineCache cache = lines.get(l);
+            if (input.series[l] instanceof PagedSeries) {
+                paged((PagedSeries) input.series[l], cache, pass.targetPoints, left, top, usableHeight, origin, span,
+                        xStep, range);
+            }
+            builder.lineVertices[l] = cache.vertices;
+            builder.lineVertexCounts[l] = cache.vertexCount;
+        }
+
+        int labelCount = Math.min(input.slots, input.xLabelCount);
+        if (input.timed()) labelCount = Math.min(labelCount, input.series[0].size());
+        float[] labelPositions = new float[labelCount];
+        for (int i = 0; i < labelCount; i++) {
+            labelPositions[i] = left + (input.slotOf(0, i) - origin) * xStep;
+        }
+        builder.xLabelPositions = labelPositions;
+        builder.placeholders = Arrays.copyOf(placeholders, placeholderCount);
+
+        lastLeft = left;
+        lastTop = top;
+        lastHeight = usableHeight;
+        lastStep = xStep;
+        // A zoomed pass leaves window vertices behind, so the next full pass must rebuild them.
+        lastOrigin = zoomed ? Float.NaN : origin;
+        lastRange = range;
+        lastTimeStart = input.timeStart;
+        return builder.build();
+    }
+
+    /** Runs one stage for every non-paged line, as fork-join tasks when a pool is set and there are several lines. */
+    private void runLines(Pass pass, int stage) {
+        int count = pass.input.series.length;
+        if (pool == null || count < 2) {
+            for (int l = 0; l < count; l++) runLine(pass, stage, l);
+        } else {
+            pool.invoke(new LineTask(pass, stage, 0, count));
+        }
+    }
+
+    private void runLine(Pass pass, int stage, int l) {
+        Input input = pass.input;
+        FloatSeries data = input.series[l];
+        if (data instanceof PagedSeries) return;
+        LineCache cache = lines.get(l);
+        if (stage == PREPARE) {
+            boolean changed = pass.zoomed
+                    ? cache.updatePyramid(input, l)
+                    : cache.sampled.update(data, input.times[l], input.modes[l], input.versions[l],
+                            pass.targetPoints);
+            if (changed) {
+                cache.max = data.max();
+                pass.resampled[l] = true;
+            }
+        } else if (pass.zoomed) {
+            int from = Math.max(0, input.floorIndex(l, input.viewStart) - 1);
+            int to = Math.min(data.size(), input.ceilIndex(l, input.viewEnd) + 2);
+            // Whatever the mode, raw points are only kept while they are sparser than the screen's columns.
+            int capacity = MinMaxPyramid.capacityFor(pass.buckets);
+            if (cache.windowIndices.length < capacity) {
+                cache.windowIndices = new int[capacity];
+            }
+            int count = from >= to ? 0 : cache.ringPyramid != null
+                    ? cache.ringPyramid.select(from, to, pass.buckets, cache.windowIndices)
+                    : cache.pyramid.select(from, to, pass.buckets, cache.windowIndices);
+            cache.vertices = vertices(data, l, cache.windowIndices, count, pass);
+            cache.vertexCount = count;
+        } else if (pass.relayout || pass.resampled[l]) {
+            cache.vertices = vertices(data, l, cache.sampled.indices, cache.sampled.count, pass);
+            cache.vertexCount = cache.sampled.count;
+        }
+    }
+
+    /** Splits the lines in halves down to one line per task; each line only touches its own cache. */
+    private final class LineTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Pass pass;
+        private final int stage;
+        private final int from;
+        private final int to;
+
+        LineTask(Pass pass, int stage, int from, int to) {
+            this.pass = pass;
+            this.stage = stage;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                runLine(pass, stage, from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new LineTask(pass, stage, from, mid), new LineTask(pass, stage, mid, to));
+        }
+    }
+
+    /**
+     * Lays out a paged line from the level with about {@code targetPoints} buckets across the view: one vertex per
+     * bucket, at its centre. Requests the pages on screen, and marks the ones not loaded yet as placeholders.
+     */
+    private void paged(PagedSeries data, LineCache cache, int targetPoints, float left, float top, float height,
+                       float origin, float span, float xStep, float range) {
+        int level = PagedSeries.levelFor(span + 1f, targetPoints);
+        int bucketSize = 1 << level;
+        int from = Math.max(0, (int) Math.floor(origin) / bucketSize - 1);
+        int to = Math.min(data.bucketCount(level), (int) Math.ceil(origin + span) / bucketSize + 2);
+        int direction = Float.isNaN(cache.pagedOrigin) ? 0 : Float.compare(origin, cache.pagedOrigin);
+        cache.pagedOrigin = origin;
+        if (from < to) data.request(level, from, to, direction);
+
+        int count = Math.max(0, to - from);
+        float[] out = new float[count * 2];
+        float[] page = null;
+        int pageIndex = -1;
+        for (int b = from; b < to; b++) {
+            if (b / PagedSeries.PAGE_BUCKETS != pageIndex) {
+                pageIndex = b / PagedSeries.PAGE_BUCKETS;
+                page = data.page(level, pageIndex);
+            }
+            long first = (long) b * bucketSize;
+            float center = first + (Math.min(bucketSize, data.size() - first) - 1) / 2f;
+            float value = page == null ? Float.NaN : page[b % PagedSeries.PAGE_BUCKETS];
+            int k = (b - from) * 2;
+            out[k] = left + (center - origin) * xStep;
+            out[k + 1] = top + height * (1f - value / range);
+            if (page == null) {
+                float x0 = Math.max(left, left + (first - origin) * xStep);
+                float x1 = Math.min(left + span * xStep, left + (first + bucketSize - origin) * xStep);
+                if (x0 < x1) placeholder(x0, x1);
+            }
+        }
+        cache.vertices = out;
+        cache.vertexCount = count;
+    }
+
+    private void placeholder(float x0, float x1) {
+        if (placeholderCount > 0 && x0 <= placeholders[placeholderCount - 1]) {
+            placeholders[placeholderCount - 1] = Math.max(x1, placeholders[placeholderCount - 1]);
+            return;
+        }
+        if (placeholderCount == placeholders.length) {
+            placeholders = Arrays.copyOf(placeholders, Math.max(8, placeholderCount * 2));
+        }
+        placeholders[placeholderCount++] = x0;
+        placeholders[placeholderCount++] = x1;
+    }
+
+    /** Fresh array each time: published snapshots may still be drawn while the next layout runs. */
+    private static float[] vertices(FloatSeries data, int l, int[] indices, int count, Pass pass) {
+        float[] out = new float[count * 2];
+        for (int k = 0; k < count; k++) {
+            int i = indices[k];
+            out[k * 2] = pass.left + (pass.input.slotOf(l, i) - pass.origin) * pass.xStep;
+            out[k * 2 + 1] = pass.top + pass.height * (1f - data.get(i) / pass.range);
+        }
+        return out;
+    }
+}
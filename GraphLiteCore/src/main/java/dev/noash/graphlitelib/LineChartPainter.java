@@ -0,0 +1,87 @@
+package dev.noash.graphlitelib;
+
+import java.util.List;
+
+/**
+ * Draws a laid-out line chart through a {@link ChartRenderer}. Shared by {@code LineChartView} and the headless
+ * renderers so both produce the same picture.
+ */
+final class LineChartPainter {
+    static final int AXIS_COLOR = 0xFFCCCCCC;
+    static final float AXIS_WIDTH = 2f;
+    static final int LABEL_COLOR = 0xFF444444;
+    static final float LABEL_TEXT_SIZE = 28f;
+    static final int PLACEHOLDER_COLOR = 0x1A9E9E9E;
+
+    private final TickLabels yTickLabels = new TickLabels();
+    private float[] run = new float[0];
+
+    void paintSeries(ChartRenderer renderer, RenderSnapshot snapshot, List<GraphLine> lines) {
+        if (snapshot.zoomed) {
+            renderer.pushClip(snapshot.plotLeft, 0f, snapshot.plotRight, snapshot.height);
+        }
+        float[] placeholders = snapshot.placeholders;
+        for (int i = 0; i < placeholders.length; i += 2) {
+            renderer.drawRoundRect(placeholders[i], snapshot.plotTop, placeholders[i + 1], snapshot.plotBottom, 0f,
+                    PLACEHOLDER_COLOR);
+        }
+        int count = Math.min(lines.size(), snapshot.lineCount());
+        for (int l = 0; l < count; l++) {
+            paintLine(renderer, snapshot.lineVertices[l], snapshot.lineVertexCounts[l], lines.get(l));
+        }
+        if (snapshot.zoomed) {
+            renderer.popClip();
+        }
+    }
+
+    /** Draws one line and its points, breaking it at vertices with a NaN y so missing data stays a gap. */
+    void paintLine(ChartRenderer renderer, float[] vertices, int count, GraphLine line) {
+        int gap = 0;
+        while (gap < count && !Float.isNaN(vertices[gap * 2 + 1])) gap++;
+        if (gap == count) {
+            paintRun(renderer, vertices, count, line);
+            return;
+        }
+        if (run.length < count * 2) run = new float[count * 2];
+        int n = 0;
+        for (int k = 0; k <= count; k++) {
+            if (k == count || Float.isNaN(vertices[k * 2 + 1])) {
+                if (n > 0) paintRun(renderer, run, n, line);
+                n = 0;
+            } else {
+                run[n * 2] = vertices[k * 2];
+                run[n * 2 + 1] = vertices[k * 2 + 1];
+                n++;
+            }
+        }
+    }
+
+    private static void paintRun(ChartRenderer renderer, float[] vertices, int count, GraphLine line) {
+        renderer.drawPolyline(vertices, count, line.smoothLine, line.color, line.lineWidth);
+        if (line.showPoints) {
+            renderer.drawPoints(vertices, count, line.pointRadius, line.color);
+        }
+    }
+
+    void paintAxes(ChartRenderer renderer, RenderSnapshot snapshot, List<String> xLabels) {
+        float left = snapshot.plotLeft;
+        float baseline = snapshot.plotBottom;
+        renderer.drawLine(left, baseline, snapshot.plotRight, baseline, AXIS_COLOR, AXIS_WIDTH);
+        renderer.drawLine(left, snapshot.plotTop, left, baseline, AXIS_COLOR, AXIS_WIDTH);
+
+        float[] xPositions = snapshot.xLabelPositions;
+        int labelCount = Math.min(xPositions.length, xLabels.size());
+        for (int i = 0; i < labelCount; i++) {
+            if (xPositions[i] < left - 1f || xPositions[i] > snapshot.plotRight + 1f) continue;
+            renderer.drawText(xLabels.get(i), xPositions[i], snapshot.height - 20f, LABEL_TEXT_SIZE, LABEL_COLOR,
+                    ChartRenderer.TextAlign.CENTER);
+        }
+
+        yTickLabels.update(snapshot.yTickValues, snapshot.yTickStep, LABEL_TEXT_SIZE, renderer);
+        for (int i = 0; i < snapshot.yTickValues.length; i++) {
+            renderer.drawText(yTickLabels.text[i], 0, yTickLabels.lengths[i], left - 12f - yTickLabels.widths[i],
+                    snapshot.yTickPositions[i] + LABEL_TEXT_SIZE / 2f, LABEL_TEXT_SIZE, LABEL_COLOR,
+                    ChartRenderer.TextAlign.LEFT);
+        }
+    }
+}
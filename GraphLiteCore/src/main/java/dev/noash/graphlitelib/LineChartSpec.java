@@ -0,0 +1,52 @@
+package dev.noash.graphlitelib;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Headless counterpart of a {@code LineChartView} configuration. */
+public class LineChartSpec extends ChartSpec {
+    private List<GraphLine> lines = new ArrayList<>();
+    private List<String> xLabels = new ArrayList<>();
+    private int yLabelCount = 5;
+    private boolean showAxis = true;
+
+    public LineChartSpec setSize(int width, int height) {
+        this.width = width;
+        this.height = height;
+        return this;
+    }
+
+    public LineChartSpec setGraphLines(List<GraphLine> lines) {
+        this.lines = lines != null ? lines : new ArrayList<>();
+        return this;
+    }
+
+    public LineChartSpec setXLabels(List<String> labels) {
+        this.xLabels = labels != null ? labels : new ArrayList<>();
+        return this;
+    }
+
+    public LineChartSpec setYLabelCount(int count) {
+        if (count >= 2) this.yLabelCount = count;
+        return this;
+    }
+
+    public LineChartSpec setShowAxis(boolean show) {
+        this.showAxis = show;
+        return this;
+    }
+
+    @Override
+    void paint(ChartRenderer renderer) {
+        if (lines.isEmpty() || lines.get(0).getValues().size() < 2) return;
+
+        int slots = LineChartLayout.slotsFor(lines.get(0).getValues());
+        RenderSnapshot snapshot = new LineChartLayout().layout(
+                new LineChartLayout.Input(0, width, height, lines, slots, xLabels.size(), yLabelCount));
+        LineChartPainter painter = new LineChartPainter();
+        painter.paintSeries(renderer, snapshot, lines);
+        if (showAxis) {
+            painter.paintAxes(renderer, snapshot, xLabels);
+        }
+    }
+}
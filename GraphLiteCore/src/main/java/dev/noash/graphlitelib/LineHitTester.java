@@ -0,0 +1,72 @@
+package dev.noash.graphlitelib;
+
+import java.util.List;
+
+/**
+ * Touch lookups against a {@link RenderSnapshot}: constant time for evenly spaced samples, a binary search over time
+ * on timestamped charts. Indices are samples of the first line unless stated otherwise.
+ */
+final class LineHitTester {
+
+    private LineHitTester() {
+    }
+
+    /** Index of the sample slot closest to {@code x}, clamped to {@code [0, size)}, or -1 for empty data. */
+    static int nearestIndex(RenderSnapshot snapshot, float x, int size) {
+        if (size <= 0) return -1;
+        if (snapshot.xStep <= 0f) return 0;
+        int index = Math.round((x - snapshot.plotLeft) / snapshot.xStep + snapshot.xOrigin);
+        return Math.max(0, Math.min(size - 1, index));
+    }
+
+    /** Sample of {@code reference} closest to {@code x}, or -1 for empty data. */
+    static int nearestIndex(RenderSnapshot snapshot, float x, GraphLine reference) {
+        int size = reference.getValues().size();
+        if (!LineChartLayout.isTimed(reference)) return nearestIndex(snapshot, x, size);
+        float slot = snapshot.xStep > 0f ? (x - snapshot.plotLeft) / snapshot.xStep + snapshot.xOrigin : 0f;
+        return reference.getTimestamps().nearestIndex(snapshot.timeStart + Math.round((double) slot));
+    }
+
+    /** Screen x of sample {@code index} of line {@code l}, laid out as {@link LineChartLayout} does. */
+    static float sampleX(RenderSnapshot snapshot, List<GraphLine> lines, int l, int index) {
+        if (!LineChartLayout.isTimed(lines.get(0))) return snapshot.xFor(index);
+        GraphLine line = lines.get(l);
+        if (LineChartLayout.isTimed(line)) return snapshot.xFor(line.getTimestamps().get(index) - snapshot.timeStart);
+        int size = line.getValues().size();
+        return snapshot.xFor(size > 1 ? index * (snapshot.fullSpan / (size - 1)) : 0f);
+    }
+
+    /**
+     * Sample of line {@code l} shown at the same x as sample {@code index} of the first line: the same index on evenly
+     * spaced charts, the sample nearest in time on timestamped ones. May be out of range.
+     */
+    static int sampleFor(RenderSnapshot snapshot, List<GraphLine> lines, int l, int index) {
+        GraphLine reference = lines.get(0);
+        if (l == 0 || !LineChartLayout.isTimed(reference) || index < 0 || index >= reference.getValues().size()) {
+            return index;
+        }
+        long time = reference.getTimestamps().get(index);
+        GraphLine line = lines.get(l);
+        if (LineChartLayout.isTimed(line)) return line.getTimestamps().nearestIndex(time);
+        int size = line.getValues().size();
+        if (size < 2 || snapshot.fullSpan <= 0f) return 0;
+        return Math.round((time - snapshot.timeStart) / snapshot.fullSpan * (size - 1));
+    }
+
+    /** Line whose value at {@code index} is drawn closest to {@code y}, or -1 if no line has that sample. */
+    static int nearestLine(RenderSnapshot snapshot, List<GraphLine> lines, int index, float y) {
+        int nearest = -1;
+        float best = Float.MAX_VALUE;
+        for (int l = 0; l < lines.size(); l++) {
+            FloatSeries values = lines.get(l).getValues();
+            int sample = sampleFor(snapshot, lines, l, index);
+            if (sample < 0 || sample >= values.size()) continue;
+            float distance = Math.abs(snapshot.yFor(values.get(sample)) - y);
+            if (distance < best) {
+                best = distance;
+                nearest = l;
+            }
+        }
+        return nearest;
+    }
+}
@@ -0,0 +1,40 @@
+package dev.noash.graphlitelib;
+
+/**
+ * Converts a polyline into quadratic segments that pass through the midpoints between samples, using each sample
+ * as the control point. The drawing side only replays the result.
+ */
+final class LineSmoother {
+
+    private LineSmoother() {
+    }
+
+    /** Floats {@link #quadSegments} writes for {@code count} vertices. */
+    static int capacityFor(int count) {
+        return count == 0 ? 0 : 2 + (count - 1) * 4;
+    }
+
+    /**
+     * Writes the start point followed by control x/y and end x/y per segment, and returns the number of floats
+     * written.
+     */
+    static int quadSegments(float[] vertices, int count, float[] out) {
+        if (count == 0) return 0;
+        float prevX = vertices[0];
+        float prevY = vertices[1];
+        out[0] = prevX;
+        out[1] = prevY;
+        int n = 2;
+        for (int k = 1; k < count; k++) {
+            float x = vertices[k * 2];
+            float y = vertices[k * 2 + 1];
+            out[n++] = prevX;
+            out[n++] = prevY;
+            out[n++] = (prevX + x) / 2f;
+            out[n++] = (prevY + y) / 2f;
+            prevX = x;
+            prevY = y;
+        }
+        return n;
+    }
+}
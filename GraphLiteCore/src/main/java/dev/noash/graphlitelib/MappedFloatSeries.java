@@ -0,0 +1,129 @@
+package dev.noash.graphlitelib;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * Read-only series over a memory-mapped column of a {@link SeriesFile}. Samples are read from the mapping on demand,
+ * so opening a file costs nothing per sample; full-range min/max are computed on first use and then cached.
+ */
+abstract class MappedFloatSeries extends FloatSeries {
+    private final int size;
+    private volatile boolean extremesKnown;
+    private float min;
+    private float max;
+
+    MappedFloatSeries(int size) {
+        this.size = size;
+    }
+
+    /** {@code buffer} must hold exactly {@code size} little-endian float32 values. */
+    static MappedFloatSeries float32(ByteBuffer buffer, int size) {
+        return new Float32(buffer.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer(), size);
+    }
+
+    /** {@code buffer} must hold exactly {@code size} little-endian float64 values; they are narrowed on read. */
+    static MappedFloatSeries float64(ByteBuffer buffer, int size) {
+        return new Float64(buffer.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer(), size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public float get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+        }
+        return read(index);
+    }
+
+    abstract float read(int index);
+
+    @Override
+    public float min() {
+        computeExtremes();
+        return min;
+    }
+
+    @Override
+    public float max() {
+        computeExtremes();
+        return max;
+    }
+
+    @Override
+    public float min(int from, int to) {
+        float result = Float.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            float v = read(i);
+            if (v < result) result = v;
+        }
+        return result;
+    }
+
+    @Override
+    public float max(int from, int to) {
+        float result = Float.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            float v = read(i);
+            if (v > result) result = v;
+        }
+        return result;
+    }
+
+    private void computeExtremes() {
+        if (extremesKnown) return;
+        float lo = Float.POSITIVE_INFINITY;
+        float hi = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            float v = read(i);
+            if (v < lo) lo = v;
+            if (v > hi) hi = v;
+        }
+        min = lo;
+        max = hi;
+        extremesKnown = true;
+    }
+
+    private static final class Float32 extends MappedFloatSeries {
+        private final FloatBuffer data;
+
+        Float32(FloatBuffer data, int size) {
+            super(size);
+            this.data = data;
+        }
+
+        @Override
+        float read(int index) {
+            return data.get(index);
+        }
+
+        @Override
+        public void copyTo(int from, float[] dst, int dstOffset, int count) {
+            // Bulk get on a duplicate: positions are not thread-safe, the absolute reads above are.
+            FloatBuffer view = data.duplicate();
+            ((Buffer) view).position(from);
+            view.get(dst, dstOffset, count);
+        }
+    }
+
+    private static final class Float64 extends MappedFloatSeries {
+        private final DoubleBuffer data;
+
+        Float64(DoubleBuffer data, int size) {
+            super(size);
+            this.data = data;
+        }
+
+        @Override
+        float read(int index) {
+            return (float) data.get(index);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package dev.noash.graphlitelib;
+
+/**
+ * Multi-resolution min/max index of a series. Level {@code k} stores, for every bucket of {@code 4^k} samples, the
+ * index of its minimum and maximum. Built once in O(n); a query for any range then touches only the buckets at the
+ * coarsest level that still gives the requested resolution, so its cost depends on the screen width, not the data.
+ */
+final class MinMaxPyramid {
+    static final int FANOUT = 4;
+
+    private final FloatSeries data;
+    /** {@code minIndex[k - 1]} holds level k; level 0 is the raw series. */
+    private final int[][] minIndex;
+    private final int[][] maxIndex;
+
+    MinMaxPyramid(FloatSeries data) {
+        this.data = data;
+        int size = data.size();
+
+        int levels = 0;
+        for (long bucket = FANOUT; bucket < size; bucket *= FANOUT) levels++;
+        minIndex = new int[levels][];
+        maxIndex = new int[levels][];
+
+        for (int level = 0; level < levels; level++) {
+            int childCount = level == 0 ? size : minIndex[level - 1].length;
+            int count = (childCount + FANOUT - 1) / FANOUT;
+            int[] mins = new int[count];
+            int[] maxs = new int[count];
+
+            for (int b = 0; b < count; b++) {
+                int first = b * FANOUT;
+                int last = Math.min(childCount, first + FANOUT);
+                int min = level == 0 ? first : minIndex[level - 1][first];
+                int max = level == 0 ? first : maxIndex[level - 1][first];
+                for (int c = first + 1; c < last; c++) {
+                    int candidateMin = level == 0 ? c : minIndex[level - 1][c];
+                    int candidateMax = level == 0 ? c : maxIndex[level - 1][c];
+                    if (data.get(candidateMin) < data.get(min)) min = candidateMin;
+                    if (data.get(candidateMax) > data.get(max)) max = candidateMax;
+                }
+                mins[b] = min;
+                maxs[b] = max;
+            }
+            minIndex[level] = mins;
+            maxIndex[level] = maxs;
+        }
+    }
+
+    FloatSeries data() {
+        return data;
+    }
+
+    int levelCount() {
+        return minIndex.length + 1;
+    }
+
+    /** Upper bound for the number of indices {@link #select} writes for {@code maxBuckets}. */
+    static int capacityFor(int maxBuckets) {
+        return 2 * maxBuckets + 4;
+    }
+
+    /**
+     * Writes sorted sample indices that preserve the extremes of {@code [from, to)} using at most about
+     * {@code maxBuckets} buckets, and returns how many were written.
+     */
+    int select(int from, int to, int maxBuckets, int[] out) {
+        int level = 0;
+        long bucketSize = 1;
+        while ((to - from) / bucketSize > maxBuckets && level < minIndex.length) {
+            level++;
+            bucketSize *= FANOUT;
+        }
+
+        int count = 0;
+        if (level == 0) {
+            for (int i = from; i < to; i++) out[count++] = i;
+            return count;
+        }
+
+        int[] mins = minIndex[level - 1];
+        int[] maxs = maxIndex[level - 1];
+        int firstBucket = (int) (from / bucketSize);
+        int lastBucket = (int) Math.min(mins.length, (to + bucketSize - 1) / bucketSize);
+        for (int b = firstBucket; b < lastBucket; b++) {
+            int a = Math.min(mins[b], maxs[b]);
+            int c = Math.max(mins[b], maxs[b]);
+            out[count++] = a;
+            if (c != a) out[count++] = c;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,181 @@
+package dev.noash.graphlitelib;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * {@link FloatSeries} over a {@link ChartDataSource} that loads data in pages on demand. Level {@code L} splits the
+ * samples into buckets of {@code 2^L}; a page holds {@link #PAGE_BUCKETS} consecutive buckets of one level. Line
+ * charts lay out a paged series from the level that gives about two buckets per pixel, request the pages on screen
+ * plus one ahead in the pan direction, and draw placeholders where pages are still loading. Loaded pages are kept in
+ * an LRU cache, so memory stays flat however long the history is.
+ *
+ * <p>{@link #get} answers from the finest loaded page that covers the sample, or NaN. Thread-safe.
+ */
+public final class PagedSeries extends FloatSeries {
+    public static final int PAGE_BUCKETS = 256;
+    static final int DEFAULT_CACHE_PAGES = 64;
+
+    interface Listener {
+        /** Called on the thread that delivered the page. */
+        void onPageLoaded(PagedSeries series);
+    }
+
+    private final ChartDataSource source;
+    private final int size;
+    private final int maxLevel;
+    private final LinkedHashMap<Long, float[]> pages;
+    private final Set<Long> pending = new HashSet<>();
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile long version;
+
+    public PagedSeries(ChartDataSource source) {
+        this(source, DEFAULT_CACHE_PAGES);
+    }
+
+    /** @param cachePages loaded pages to keep; the least recently drawn ones are dropped first */
+    public PagedSeries(ChartDataSource source, int cachePages) {
+        if (cachePages < 1) throw new IllegalArgumentException("cachePages must be positive: " + cachePages);
+        this.source = source;
+        this.size = source.size();
+        this.maxLevel = levelFor(size, 1);
+        this.pages = new LinkedHashMap<Long, float[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, float[]> eldest) {
+                return size() > cachePages;
+            }
+        };
+    }
+
+    /** Smallest level whose buckets cover {@code span} samples in at most {@code buckets} buckets. */
+    static int levelFor(float span, int buckets) {
+        int level = 0;
+        while (level < 30 && (float) (1 << level) * buckets < span) level++;
+        return level;
+    }
+
+    int bucketCount(int level) {
+        return (int) (((long) size + (1L << level) - 1) >> level);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public float get(int index) {
+        for (int level = 0; level <= maxLevel; level++) {
+            int bucket = index >> level;
+            float[] page = page(level, bucket / PAGE_BUCKETS);
+            if (page != null) return page[bucket % PAGE_BUCKETS];
+        }
+        return Float.NaN;
+    }
+
+    /** Increments whenever a page arrives. */
+    @Override
+    public long version() {
+        return version;
+    }
+
+    /** The source's {@link ChartDataSource#maxValue()}, or the largest loaded value. */
+    @Override
+    public float max() {
+        float hint = source.maxValue();
+        if (!Float.isNaN(hint)) return hint;
+        float max = Float.NEGATIVE_INFINITY;
+        synchronized (pages) {
+            for (float[] page : pages.values()) {
+                for (float v : page) {
+                    if (v > max) max = v;
+                }
+            }
+        }
+        return max;
+    }
+
+    /** Smallest loaded value. */
+    @Override
+    public float min() {
+        float min = Float.POSITIVE_INFINITY;
+        synchronized (pages) {
+            for (float[] page : pages.values()) {
+                for (float v : page) {
+                    if (v < min) min = v;
+                }
+            }
+        }
+        return min;
+    }
+
+    /** Loaded page {@code index} of {@code level}, or null. Counts as a use for the LRU order. */
+    float[] page(int level, int index) {
+        synchronized (pages) {
+            return pages.get(key(level, index));
+        }
+    }
+
+    int cachedPages() {
+        synchronized (pages) {
+            return pages.size();
+        }
+    }
+
+    /**
+     * Requests the pages holding buckets {@code [fromBucket, toBucket)} of {@code level} that are neither loaded nor
+     * loading, plus the next page in {@code direction} (negative, positive, or 0 for both sides) as a prefetch.
+     */
+    void request(int level, int fromBucket, int toBucket, int direction) {
+        int lastPage = (bucketCount(level) - 1) / PAGE_BUCKETS;
+        int first = Math.max(0, fromBucket / PAGE_BUCKETS);
+        int last = Math.min(lastPage, Math.max(first, (toBucket - 1) / PAGE_BUCKETS));
+        for (int p = first; p <= last; p++) {
+            load(level, p);
+        }
+        if (direction <= 0 && first > 0) load(level, first - 1);
+        if (direction >= 0 && last < lastPage) load(level, last + 1);
+    }
+
+    private void load(int level, int index) {
+        long key = key(level, index);
+        synchronized (pages) {
+            if (pages.containsKey(key) || !pending.add(key)) return;
+        }
+        int bucketSize = 1 << level;
+        int start = (int) Math.min(size, (long) index * PAGE_BUCKETS * bucketSize);
+        int end = (int) Math.min(size, (long) (index + 1) * PAGE_BUCKETS * bucketSize);
+        int bucketCount = (end - start + bucketSize - 1) / bucketSize;
+        source.loadRange(start, end, bucketCount, buckets -> onLoaded(key, buckets, bucketCount));
+    }
+
+    private void onLoaded(long key, float[] buckets, int bucketCount) {
+        float[] page = new float[PAGE_BUCKETS];
+        Arrays.fill(page, Float.NaN);
+        System.arraycopy(buckets, 0, page, 0, Math.min(bucketCount, buckets.length));
+        synchronized (pages) {
+            pending.remove(key);
+            pages.put(key, page);
+            version++;
+        }
+        for (Listener listener : listeners) {
+            listener.onPageLoaded(this);
+        }
+    }
+
+    void addListener(Listener listener) {
+        if (!listeners.contains(listener)) listeners.add(listener);
+    }
+
+    void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private static long key(int level, int index) {
+        return ((long) level << 32) | (index & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,129 @@
+package dev.noash.graphlitelib;
+
+/**
+ * Immutable series stored as 16-bit codes, quantized against the min/max of each block of {@link #BLOCK_SIZE}
+ * samples: about half the memory of a float array. Values are decoded on every read, so layout and downsampling
+ * work on it unchanged. Each value is off by half a step at most, {@code (blockMax - blockMin) / 131068}, far below
+ * a pixel on any chart. NaN is kept; infinities are stored as NaN.
+ */
+public final class QuantizedFloatSeries extends FloatSeries {
+    public static final int BLOCK_SIZE = 256;
+    /** Largest code for a value; the one above it marks NaN. */
+    private static final int STEPS = 0xFFFE;
+    private static final int NAN_CODE = 0xFFFF;
+
+    private final int size;
+    private final char[] codes;
+    private final float[] blockMin;
+    private final float[] blockMax;
+    private final float[] blockStep;
+
+    public static QuantizedFloatSeries encode(float[] values) {
+        return encode(FloatSeries.of(values));
+    }
+
+    public static QuantizedFloatSeries encode(FloatSeries values) {
+        return new QuantizedFloatSeries(values);
+    }
+
+    private QuantizedFloatSeries(FloatSeries values) {
+        size = values.size();
+        codes = new char[size];
+        int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        blockMin = new float[blocks];
+        blockMax = new float[blocks];
+        blockStep = new float[blocks];
+        float[] block = new float[BLOCK_SIZE];
+        for (int b = 0; b < blocks; b++) {
+            int start = b * BLOCK_SIZE;
+            int count = Math.min(BLOCK_SIZE, size - start);
+            values.copyTo(start, block, 0, count);
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                float v = block[i];
+                if (Float.isNaN(v) || Float.isInfinite(v)) continue;
+                if (v < min) min = v;
+                if (v > max) max = v;
+            }
+            float step = max > min ? (float) (((double) max - min) / STEPS) : 0f;
+            for (int i = 0; i < count; i++) {
+                float v = block[i];
+                codes[start + i] = Float.isNaN(v) || Float.isInfinite(v) ? (char) NAN_CODE
+                        : step == 0f ? 0 : (char) Math.min(STEPS, Math.round((v - min) / step));
+            }
+            blockMin[b] = min;
+            blockStep[b] = step;
+            // Extremes as decoded, so min()/max() agree with get().
+            blockMax[b] = max > min ? min + STEPS * step : max;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public float get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+        }
+        int code = codes[index];
+        int b = index / BLOCK_SIZE;
+        return code == NAN_CODE ? Float.NaN : blockMin[b] + code * blockStep[b];
+    }
+
+    @Override
+    public void copyTo(int from, float[] dst, int dstOffset, int count) {
+        int end = from + count;
+        for (int i = from; i < end; ) {
+            int b = i / BLOCK_SIZE;
+            int blockEnd = Math.min(end, (b + 1) * BLOCK_SIZE);
+            float min = blockMin[b];
+            float step = blockStep[b];
+            for (; i < blockEnd; i++) {
+                int code = codes[i];
+                dst[dstOffset + i - from] = code == NAN_CODE ? Float.NaN : min + code * step;
+            }
+        }
+    }
+
+    /** Whole blocks answer from their stored extremes; only the partial ones at either end are decoded. */
+    @Override
+    public float min(int from, int to) {
+        float min = Float.POSITIVE_INFINITY;
+        for (int i = from; i < to; ) {
+            int b = i / BLOCK_SIZE;
+            int blockEnd = Math.min(to, (b + 1) * BLOCK_SIZE);
+            float v = i == b * BLOCK_SIZE && blockEnd == Math.min(size, (b + 1) * BLOCK_SIZE)
+                    ? blockMin[b] : super.min(i, blockEnd);
+            if (v < min) min = v;
+            i = blockEnd;
+        }
+        return min;
+    }
+
+    @Override
+    public float max(int from, int to) {
+        float max = Float.NEGATIVE_INFINITY;
+        for (int i = from; i < to; ) {
+            int b = i / BLOCK_SIZE;
+            int blockEnd = Math.min(to, (b + 1) * BLOCK_SIZE);
+            float v = i == b * BLOCK_SIZE && blockEnd == Math.min(size, (b + 1) * BLOCK_SIZE)
+                    ? blockMax[b] : super.max(i, blockEnd);
+            if (v > max) max = v;
+            i = blockEnd;
+        }
+        return max;
+    }
+
+    /** Largest difference between a stored value and the value it was encoded from. */
+    public float maxError() {
+        float max = 0f;
+        for (float step : blockStep) {
+            if (step > max) max = step;
+        }
+        return max / 2f;
+    }
+}
@@ -0,0 +1,158 @@
+package dev.noash.graphlitelib;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, platform-independent result of a chart layout pass: everything {@code onDraw} needs, in screen pixels.
+ * Built off the UI thread when a layout executor is set; never modified after publication.
+ */
+final class RenderSnapshot {
+    final long sequence;
+    final int width;
+    final int height;
+
+    final float plotLeft;
+    final float plotTop;
+    final float plotRight;
+    final float plotBottom;
+
+    /** Maximum value on the y axis; the axis starts at 0. */
+    final float yMax;
+
+    /** Line charts: horizontal distance between two sample slots. */
+    final float xStep;
+    /** Line charts: sample slot drawn at {@code plotLeft}; non-zero when zoomed in. */
+    final float xOrigin;
+    /** Line charts: slot coordinate of the right edge of the fully zoomed-out view. */
+    final float fullSpan;
+    /** Timestamped line charts: the time at slot coordinate 0; slot coordinates are times relative to it. */
+    final long timeStart;
+    /** True when only part of the data is visible and must be clipped to the plot. */
+    final boolean zoomed;
+    /** Line charts: interleaved x/y vertices per line, {@code lineVertexCounts[l]} points each. */
+    final float[][] lineVertices;
+    final int[] lineVertexCounts;
+    /**
+     * Line charts: the lines these vertices were laid out for, whose style they are drawn with. While a new layout
+     * is in flight the chart's lines may already differ.
+     */
+    final List<GraphLine> lines;
+    /** Line charts: left/right x pairs of ranges whose paged data is still loading. Vertices there have NaN y. */
+    final float[] placeholders;
+
+    /** Bar charts: left, top, right, bottom per bar, starting at bar {@code firstBar}. */
+    final float[] barRects;
+    final int barCount;
+    final int firstBar;
+
+    final float[] xLabelPositions;
+    /** Y tick values from the top of the plot down, and the distance between two ticks. */
+    final float[] yTickValues;
+    final float[] yTickPositions;
+    final float yTickStep;
+
+    private RenderSnapshot(Builder builder) {
+        sequence = builder.sequence;
+        width = builder.width;
+        height = builder.height;
+        plotLeft = builder.plotLeft;
+        plotTop = builder.plotTop;
+        plotRight = builder.plotRight;
+        plotBottom = builder.plotBottom;
+        yMax = builder.yMax;
+        xStep = builder.xStep;
+        xOrigin = builder.xOrigin;
+        fullSpan = builder.fullSpan;
+        timeStart = builder.timeStart;
+        zoomed = builder.zoomed;
+        lineVertices = builder.lineVertices;
+        lineVertexCounts = builder.lineVertexCounts;
+        lines = builder.lines;
+        placeholders = builder.placeholders;
+        barRects = builder.barRects;
+        barCount = builder.barCount;
+        firstBar = builder.firstBar;
+        xLabelPositions = builder.xLabelPositions;
+        yTickValues = builder.yTickValues;
+        yTickPositions = builder.yTickPositions;
+        yTickStep = builder.yTickStep;
+    }
+
+    /** Screen y of {@code value}, using the same scale as the laid-out lines. */
+    float yFor(float value) {
+        float range = yMax == 0 ? 1 : yMax;
+        return plotTop + (plotBottom - plotTop) * (1f - value / range);
+    }
+
+    /** Screen x of slot coordinate {@code index}: a sample index, or a time since {@link #timeStart}. */
+    float xFor(float index) {
+        return plotLeft + (index - xOrigin) * xStep;
+    }
+
+    int lineCount() {
+        return lineVertices.length;
+    }
+
+    static final class Builder {
+        private static final float[] NO_FLOATS = new float[0];
+
+        long sequence;
+        int width;
+        int height;
+        float plotLeft;
+        float plotTop;
+        float plotRight;
+        float plotBottom;
+        float yMax;
+        float xStep;
+        float xOrigin;
+        float fullSpan;
+        long timeStart;
+        boolean zoomed;
+        float[][] lineVertices = new float[0][];
+        int[] lineVertexCounts = new int[0];
+        List<GraphLine> lines = Collections.emptyList();
+        float[] placeholders = NO_FLOATS;
+        float[] barRects = NO_FLOATS;
+        int barCount;
+        int firstBar;
+        float[] xLabelPositions = NO_FLOATS;
+        float[] yTickValues = NO_FLOATS;
+        float[] yTickPositions = NO_FLOATS;
+        float yTickStep;
+
+        Builder(long sequence, int width, int height) {
+            this.sequence = sequence;
+            this.width = width;
+            this.height = height;
+        }
+
+        Builder plot(float left, float top, float right, float bottom) {
+            plotLeft = left;
+            plotTop = top;
+            plotRight = right;
+            plotBottom = bottom;
+            return this;
+        }
+
+        /** Uses {@code ticks.max} as the top of the plot and lists the ticks from the top down to 0. */
+        Builder yTicks(AxisTicks ticks) {
+            yMax = ticks.max;
+            yTickStep = ticks.step;
+            int count = ticks.values.length;
+            yTickValues = new float[count];
+            yTickPositions = new float[count];
+            for (int i = 0; i < count; i++) {
+                float value = ticks.values[count - 1 - i];
+                yTickValues[i] = value;
+                yTickPositions[i] = plotTop + (plotBottom - plotTop) * (1f - value / yMax);
+            }
+            return this;
+        }
+
+        RenderSnapshot build() {
+            return new RenderSnapshot(this);
+        }
+    }
+}
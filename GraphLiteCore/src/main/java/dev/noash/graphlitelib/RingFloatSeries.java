@@ -0,0 +1,110 @@
+package dev.noash.graphlitelib;
+
+/**
+ * Fixed-capacity series that keeps the most recent samples. Index 0 is the oldest retained sample.
+ * Not thread-safe. Samples are added through {@link GraphLine#append(float)} on the thread that draws the chart.
+ */
+public final class RingFloatSeries extends FloatSeries {
+    private final float[] buffer;
+    private final SlidingWindowExtremes extremes;
+    private long written;
+    private long version;
+    private int start;
+    private int size;
+    private FloatSeries snapshot;
+    private long snapshotVersion;
+
+    public RingFloatSeries(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        buffer = new float[capacity];
+        extremes = new SlidingWindowExtremes(capacity);
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    void append(float value) {
+        int capacity = buffer.length;
+        buffer[(int) (written % capacity)] = value;
+        extremes.add(written, value);
+        written++;
+        version++;
+        if (size < capacity) {
+            size++;
+        } else {
+            start = (start + 1) % capacity;
+        }
+    }
+
+    void append(float[] values, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            append(values[i]);
+        }
+    }
+
+    /** Package-private so clearing always goes through {@link GraphLine#clear()}, which redraws charts. */
+    void clear() {
+        version++;
+        start = (int) (written % buffer.length);
+        size = 0;
+        extremes.clear();
+    }
+
+    /** Position of sample 0 among all samples ever appended; clearing does not reset it. */
+    long firstPosition() {
+        return written - size;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public float get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+        }
+        return buffer[(start + index) % buffer.length];
+    }
+
+    @Override
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Copies the window once per version: layout passes capture every frame, and handing out the same copy while
+     * nothing was appended lets their caches, which compare series by identity, keep their results.
+     */
+    @Override
+    public FloatSeries snapshot() {
+        if (snapshot == null || snapshotVersion != version) {
+            snapshot = FloatSeries.of(toArray());
+            snapshotVersion = version;
+        }
+        return snapshot;
+    }
+
+    @Override
+    public float min(int from, int to) {
+        return from == 0 && to == size ? extremes.min() : super.min(from, to);
+    }
+
+    @Override
+    public float max(int from, int to) {
+        return from == 0 && to == size ? extremes.max() : super.max(from, to);
+    }
+
+    @Override
+    public void copyTo(int from, float[] dst, int dstOffset, int count) {
+        int capacity = buffer.length;
+        int first = (start + from) % capacity;
+        int head = Math.min(count, capacity - first);
+        System.arraycopy(buffer, first, dst, dstOffset, head);
+        System.arraycopy(buffer, 0, dst, dstOffset + head, count - head);
+    }
+}
@@ -0,0 +1,138 @@
+package dev.noash.graphlitelib;
+
+import java.util.Arrays;
+
+/**
+ * {@link MinMaxPyramid} for a streaming line. Buckets are aligned to absolute sample positions, counted from the first
+ * sample ever appended, so samples moving through the window keep their buckets: an update recomputes only the buckets
+ * covering the appended tail, and the first bucket of each level once samples fall off the front. A frame costs
+ * O(appended + levels) instead of a rebuild of the whole window.
+ */
+final class RingMinMaxPyramid {
+    private final int capacity;
+    /** Per level k >= 1 ({@code [k - 1]}), a ring of bucket slots: the bucket each holds and its extremes. */
+    private final long[][] buckets;
+    private final long[][] minPos;
+    private final long[][] maxPos;
+
+    private FloatSeries data;
+    /** Absolute positions of the window: {@code data.get(i)} is position {@code first + i}. */
+    private long first;
+    private long end;
+
+    RingMinMaxPyramid(int capacity) {
+        this.capacity = capacity;
+        int levels = 0;
+        for (long bucket = MinMaxPyramid.FANOUT; bucket < capacity; bucket *= MinMaxPyramid.FANOUT) levels++;
+        buckets = new long[levels][];
+        minPos = new long[levels][];
+        maxPos = new long[levels][];
+        long bucketSize = 1;
+        for (int level = 0; level < levels; level++) {
+            bucketSize *= MinMaxPyramid.FANOUT;
+            // A window overlaps at most this many buckets, so live buckets never share a slot.
+            int slots = (int) (capacity / bucketSize) + 2;
+            buckets[level] = new long[slots];
+            Arrays.fill(buckets[level], -1L);
+            minPos[level] = new long[slots];
+            maxPos[level] = new long[slots];
+        }
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Moves the pyramid to the window {@code data}, whose sample 0 is absolute position {@code first}. Positions
+     * never repeat, so everything before the previous end is still valid apart from what left the window.
+     */
+    void update(FloatSeries data, long first) {
+        long from = this.data == null ? first : Math.max(end, first);
+        this.data = data;
+        this.first = first;
+        this.end = first + data.size();
+        long bucketSize = 1;
+        for (int level = 1; level <= buckets.length; level++) {
+            bucketSize *= MinMaxPyramid.FANOUT;
+            if (from >= end) break;
+            for (long b = from / bucketSize, last = (end - 1) / bucketSize; b <= last; b++) {
+                compute(level, b);
+            }
+        }
+    }
+
+    /** Like {@link MinMaxPyramid#select}, for window indices {@code [from, to)}. */
+    int select(int from, int to, int maxBuckets, int[] out) {
+        int level = 0;
+        long bucketSize = 1;
+        while ((to - from) / bucketSize > maxBuckets && level < buckets.length) {
+            level++;
+            bucketSize *= MinMaxPyramid.FANOUT;
+        }
+
+        int count = 0;
+        if (level == 0) {
+            for (int i = from; i < to; i++) out[count++] = i;
+            return count;
+        }
+
+        long lastBucket = (first + to - 1) / bucketSize;
+        for (long b = (first + from) / bucketSize; b <= lastBucket; b++) {
+            int slot = resolve(level, b);
+            if (slot < 0) continue;
+            int a = (int) (Math.min(minPos[level - 1][slot], maxPos[level - 1][slot]) - first);
+            int c = (int) (Math.max(minPos[level - 1][slot], maxPos[level - 1][slot]) - first);
+            out[count++] = a;
+            if (c != a) out[count++] = c;
+        }
+        return count;
+    }
+
+    /** Slot of bucket {@code b} at {@code level}, recomputed if it is stale or lost samples; -1 if it is empty. */
+    private int resolve(int level, long b) {
+        long bucketSize = pow(level);
+        if ((b + 1) * bucketSize <= first || b * bucketSize >= end) return -1;
+        int slot = (int) (b % buckets[level - 1].length);
+        if (buckets[level - 1][slot] == b && minPos[level - 1][slot] >= first && maxPos[level - 1][slot] >= first) {
+            return slot;
+        }
+        return compute(level, b);
+    }
+
+    private int compute(int level, long b) {
+        int slot = (int) (b % buckets[level - 1].length);
+        long min = -1;
+        long max = -1;
+        for (long c = b * MinMaxPyramid.FANOUT, last = c + MinMaxPyramid.FANOUT; c < last; c++) {
+            long childMin;
+            long childMax;
+            if (level == 1) {
+                if (c < first || c >= end) continue;
+                childMin = childMax = c;
+            } else {
+                int child = resolve(level - 1, c);
+                if (child < 0) continue;
+                childMin = minPos[level - 2][child];
+                childMax = maxPos[level - 2][child];
+            }
+            if (min < 0 || value(childMin) < value(min)) min = childMin;
+            if (max < 0 || value(childMax) > value(max)) max = childMax;
+        }
+        if (min < 0) return -1;
+        buckets[level - 1][slot] = b;
+        minPos[level - 1][slot] = min;
+        maxPos[level - 1][slot] = max;
+        return slot;
+    }
+
+    private float value(long position) {
+        return data.get((int) (position - first));
+    }
+
+    private static long pow(int level) {
+        long size = 1;
+        for (int i = 0; i < level; i++) size *= MinMaxPyramid.FANOUT;
+        return size;
+    }
+}
@@ -0,0 +1,48 @@
+package dev.noash.graphlitelib;
+
+/**
+ * Downsampled view of a {@link GraphLine}, cached until the data, the mode or the target resolution changes.
+ */
+final class SampledSeries {
+    private FloatSeries source;
+    private Timestamps sourceTimes;
+    private int sourceSize = -1;
+    private long sourceVersion = -1;
+    private long lineVersion = -1;
+    private DownsampleMode mode;
+    private int targetPoints = -1;
+
+    int[] indices = new int[0];
+    int count;
+
+    /** Returns true when the sampled indices were recomputed. */
+    boolean update(GraphLine line, int targetPoints) {
+        return update(line.getValues(), null, line.downsampleMode, line.dataVersion(), targetPoints);
+    }
+
+    /** {@code times} places the samples in time for downsampling; null spaces them evenly. */
+    boolean update(FloatSeries data, Timestamps times, DownsampleMode downsampleMode, long dataVersion,
+                   int targetPoints) {
+        int size = data.size();
+        long version = data.version();
+        if (data == source && times == sourceTimes && size == sourceSize && version == sourceVersion && dataVersion == lineVersion
+                && downsampleMode == mode && targetPoints == this.targetPoints) {
+            return false;
+        }
+
+        int capacity = downsampleMode == DownsampleMode.NONE ? size : Math.min(size, targetPoints);
+        if (indices.length < capacity) {
+            indices = new int[capacity];
+        }
+        count = Downsampler.sample(data, times, downsampleMode, targetPoints, indices);
+
+        source = data;
+        sourceTimes = times;
+        sourceSize = size;
+        sourceVersion = version;
+        lineVersion = dataVersion;
+        mode = downsampleMode;
+        this.targetPoints = targetPoints;
+        return true;
+    }
+}
@@ -0,0 +1,181 @@
+package dev.noash.graphlitelib;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Columnar binary file of float samples, opened through {@link FileChannel#map} so tens of millions of samples can
+ * be charted without loading them onto the heap. Each column is exposed as a {@link FloatSeries} that reads the
+ * mapping directly; pass it to {@link GraphLine#GraphLine(FloatSeries)}.
+ *
+ * <p>Layout, all little-endian:
+ * <pre>
+ * 0   magic "GLSF"
+ * 4   int32 format version (1)
+ * 8   int32 column count
+ * 12  int32 reserved (0)
+ * 16  int64 row count
+ * 24  per column: int8 type (1 = float32, 2 = float64), int8 reserved, uint16 name length, UTF-8 name
+ *     then each column's samples, every column starting on an 8-byte boundary
+ * </pre>
+ */
+public final class SeriesFile {
+    static final int MAGIC = 0x46534C47; // "GLSF" read little-endian
+    static final int FORMAT_VERSION = 1;
+    static final byte TYPE_FLOAT32 = 1;
+    static final byte TYPE_FLOAT64 = 2;
+    private static final int HEADER_BYTES = 24;
+
+    private final String[] names;
+    private final FloatSeries[] columns;
+    private final long rowCount;
+
+    private SeriesFile(String[] names, FloatSeries[] columns, long rowCount) {
+        this.names = names;
+        this.columns = columns;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Maps every column of {@code path}. The mapping stays valid after this returns and is released when the
+     * returned object and its series are garbage collected.
+     */
+    public static SeriesFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            ByteBuffer header = ByteBuffer.allocate((int) Math.min(fileSize, 64 * 1024)).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) > 0) {
+                // read the header region
+            }
+            // Buffer casts keep the Java 8 method signatures that Android before API 28 provides.
+            ((Buffer) header).flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException(path + " is not a series file");
+            }
+            int version = header.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported series file version " + version);
+            }
+            int columnCount = header.getInt();
+            header.getInt();
+            long rows = header.getLong();
+            if (columnCount < 0 || rows < 0 || rows > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt series file header: columns=" + columnCount + ", rows=" + rows);
+            }
+
+            String[] names = new String[columnCount];
+            byte[] types = new byte[columnCount];
+            try {
+                for (int c = 0; c < columnCount; c++) {
+                    types[c] = header.get();
+                    header.get();
+                    byte[] name = new byte[header.getShort() & 0xFFFF];
+                    header.get(name);
+                    names[c] = new String(name, StandardCharsets.UTF_8);
+                }
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupt series file column table", e);
+            }
+
+            FloatSeries[] columns = new FloatSeries[columnCount];
+            long offset = align(header.position());
+            for (int c = 0; c < columnCount; c++) {
+                int width = types[c] == TYPE_FLOAT32 ? 4 : types[c] == TYPE_FLOAT64 ? 8 : 0;
+                if (width == 0) throw new IOException("Unknown type " + types[c] + " for column " + names[c]);
+                long bytes = rows * width;
+                if (bytes > Integer.MAX_VALUE) throw new IOException("Column " + names[c] + " is too large to map");
+                if (offset + bytes > fileSize) throw new IOException("Series file is truncated at column " + names[c]);
+
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, bytes);
+                columns[c] = width == 4
+                        ? MappedFloatSeries.float32(buffer, (int) rows)
+                        : MappedFloatSeries.float64(buffer, (int) rows);
+                offset = align(offset + bytes);
+            }
+            return new SeriesFile(names, columns, rows);
+        }
+    }
+
+    /** Writes float32 columns of equal length in the format {@link #open} reads. */
+    public static void write(Path path, List<String> names, List<float[]> columns) throws IOException {
+        if (names.size() != columns.size()) {
+            throw new IllegalArgumentException(names.size() + " names for " + columns.size() + " columns");
+        }
+        int rows = columns.isEmpty() ? 0 : columns.get(0).length;
+        int tableBytes = 0;
+        byte[][] encodedNames = new byte[names.size()][];
+        for (int c = 0; c < columns.size(); c++) {
+            if (columns.get(c).length != rows) throw new IllegalArgumentException("Columns differ in length");
+            encodedNames[c] = names.get(c).getBytes(StandardCharsets.UTF_8);
+            if (encodedNames[c].length > 0xFFFF) throw new IllegalArgumentException("Column name too long");
+            tableBytes += 4 + encodedNames[c].length;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate((int) align(HEADER_BYTES + tableBytes)).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(columns.size()).putInt(0).putLong(rows);
+        for (byte[] name : encodedNames) {
+            header.put(TYPE_FLOAT32).put((byte) 0).putShort((short) name.length).put(name);
+        }
+        ((Buffer) header).clear();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+            ByteBuffer chunk = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+            for (float[] column : columns) {
+                for (int i = 0; i < column.length; ) {
+                    ((Buffer) chunk).clear();
+                    int n = Math.min(column.length - i, chunk.capacity() / 4);
+                    chunk.asFloatBuffer().put(column, i, n);
+                    ((Buffer) chunk).limit(n * 4);
+                    writeFully(channel, chunk);
+                    i += n;
+                }
+                int padding = (int) (align(column.length * 4L) - column.length * 4L);
+                if (padding > 0) writeFully(channel, ByteBuffer.allocate(padding));
+            }
+        }
+    }
+
+    public int columnCount() {
+        return columns.length;
+    }
+
+    public long rowCount() {
+        return rowCount;
+    }
+
+    public String columnName(int index) {
+        return names[index];
+    }
+
+    public FloatSeries column(int index) {
+        return columns[index];
+    }
+
+    /** Column with {@code name}, or null if there is none. */
+    public FloatSeries column(String name) {
+        for (int c = 0; c < names.length; c++) {
+            if (names[c].equals(name)) return columns[c];
+        }
+        return null;
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
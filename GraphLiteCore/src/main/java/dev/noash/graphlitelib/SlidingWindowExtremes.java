@@ -0,0 +1,68 @@
+package dev.noash.graphlitelib;
+
+/**
+ * Minimum and maximum of the last {@code capacity} samples, maintained with two monotonic deques.
+ * Each sample is pushed and popped at most once, so appends are amortized O(1).
+ */
+final class SlidingWindowExtremes {
+    private final int capacity;
+
+    private final long[] maxIndex;
+    private final float[] maxValue;
+    private int maxHead;
+    private int maxSize;
+
+    private final long[] minIndex;
+    private final float[] minValue;
+    private int minHead;
+    private int minSize;
+
+    SlidingWindowExtremes(int capacity) {
+        this.capacity = capacity;
+        maxIndex = new long[capacity];
+        maxValue = new float[capacity];
+        minIndex = new long[capacity];
+        minValue = new float[capacity];
+    }
+
+    void add(long index, float value) {
+        long expired = index - capacity;
+
+        while (maxSize > 0 && maxIndex[maxHead] <= expired) {
+            maxHead = (maxHead + 1) % capacity;
+            maxSize--;
+        }
+        while (maxSize > 0 && maxValue[(maxHead + maxSize - 1) % capacity] <= value) {
+            maxSize--;
+        }
+        int maxTail = (maxHead + maxSize) % capacity;
+        maxIndex[maxTail] = index;
+        maxValue[maxTail] = value;
+        maxSize++;
+
+        while (minSize > 0 && minIndex[minHead] <= expired) {
+            minHead = (minHead + 1) % capacity;
+            minSize--;
+        }
+        while (minSize > 0 && minValue[(minHead + minSize - 1) % capacity] >= value) {
+            minSize--;
+        }
+        int minTail = (minHead + minSize) % capacity;
+        minIndex[minTail] = index;
+        minValue[minTail] = value;
+        minSize++;
+    }
+
+    float max() {
+        return maxSize > 0 ? maxValue[maxHead] : Float.NEGATIVE_INFINITY;
+    }
+
+    float min() {
+        return minSize > 0 ? minValue[minHead] : Float.POSITIVE_INFINITY;
+    }
+
+    void clear() {
+        maxHead = maxSize = 0;
+        minHead = minSize = 0;
+    }
+}
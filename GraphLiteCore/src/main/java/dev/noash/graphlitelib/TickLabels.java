@@ -0,0 +1,47 @@
+package dev.noash.graphlitelib;
+
+/**
+ * Formatted tick labels and their measured widths, rebuilt only when the tick values, step or text size change.
+ */
+final class TickLabels {
+    private final LabelFormatter formatter = new LabelFormatter();
+    private float[] values = new float[0];
+    private float step = Float.NaN;
+    private float textSize = Float.NaN;
+
+    char[][] text = new char[0][];
+    int[] lengths = new int[0];
+    float[] widths = new float[0];
+
+    void update(float[] tickValues, float tickStep, float labelTextSize, ChartRenderer renderer) {
+        if (tickStep == step && labelTextSize == textSize && sameValues(tickValues)) return;
+
+        int count = tickValues.length;
+        if (values.length != count) {
+            values = new float[count];
+            text = new char[count][];
+            lengths = new int[count];
+            widths = new float[count];
+        }
+        for (int i = 0; i < count; i++) {
+            formatter.clear().appendCompact(tickValues[i], tickStep);
+            if (text[i] == null || text[i].length < formatter.length) {
+                text[i] = new char[formatter.length];
+            }
+            System.arraycopy(formatter.buffer, 0, text[i], 0, formatter.length);
+            lengths[i] = formatter.length;
+            widths[i] = renderer.measureText(text[i], 0, formatter.length, labelTextSize);
+            values[i] = tickValues[i];
+        }
+        step = tickStep;
+        textSize = labelTextSize;
+    }
+
+    private boolean sameValues(float[] tickValues) {
+        if (tickValues.length != values.length) return false;
+        for (int i = 0; i < tickValues.length; i++) {
+            if (Float.compare(tickValues[i], values[i]) != 0) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,98 @@
+package dev.noash.graphlitelib;
+
+/**
+ * Immutable, non-decreasing sample times for a {@link GraphLine}, in any unit (for example epoch milliseconds).
+ * Stored delta-encoded: one {@code long} base per block of {@link #BLOCK_SIZE} samples plus an {@code int} offset
+ * per sample, about half the memory of a {@code long[]} while keeping random access. Blocks spanning more than
+ * {@code Integer.MAX_VALUE} units fall back to plain {@code long}s.
+ */
+public final class Timestamps {
+    public static final int BLOCK_SIZE = 64;
+
+    private final int size;
+    private final long[] bases;
+    private final int[] offsets;
+    /** Set instead of bases/offsets when a block's span does not fit an int. */
+    private final long[] wide;
+
+    public static Timestamps of(long... times) {
+        return new Timestamps(times);
+    }
+
+    private Timestamps(long[] times) {
+        size = times.length;
+        boolean fits = true;
+        for (int i = 1; i < size; i++) {
+            if (times[i] < times[i - 1]) {
+                throw new IllegalArgumentException("times must not decrease: index " + i);
+            }
+            if (times[i] - times[(i / BLOCK_SIZE) * BLOCK_SIZE] > Integer.MAX_VALUE) fits = false;
+        }
+        if (!fits) {
+            wide = times.clone();
+            bases = null;
+            offsets = null;
+            return;
+        }
+        wide = null;
+        bases = new long[(size + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        offsets = new int[size];
+        for (int i = 0; i < size; i++) {
+            int block = i / BLOCK_SIZE;
+            if (i % BLOCK_SIZE == 0) bases[block] = times[i];
+            offsets[i] = (int) (times[i] - bases[block]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+        }
+        return wide != null ? wide[index] : bases[index / BLOCK_SIZE] + offsets[index];
+    }
+
+    public long first() {
+        return get(0);
+    }
+
+    public long last() {
+        return get(size - 1);
+    }
+
+    /** Last index with a time at or before {@code time}, or -1. */
+    public int floorIndex(long time) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (get(mid) <= time) low = mid + 1;
+            else high = mid - 1;
+        }
+        return high;
+    }
+
+    /** First index with a time at or after {@code time}, or {@link #size()}. */
+    public int ceilIndex(long time) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (get(mid) < time) low = mid + 1;
+            else high = mid - 1;
+        }
+        return low;
+    }
+
+    /** Index whose time is closest to {@code time}, or -1 when empty. */
+    public int nearestIndex(long time) {
+        if (size == 0) return -1;
+        int after = ceilIndex(time);
+        if (after == 0) return 0;
+        if (after == size) return size - 1;
+        return time - get(after - 1) <= get(after) - time ? after - 1 : after;
+    }
+}
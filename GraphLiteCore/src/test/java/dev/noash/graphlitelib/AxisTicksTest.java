@@ -0,0 +1,44 @@
+package dev.noash.graphlitelib;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AxisTicksTest {
+
+    @Test
+    public void roundsRawMaximaToNiceSteps() {
+        AxisTicks ticks = AxisTicks.compute(6000f, 6);
+        assertEquals(2000f, ticks.step, 0f);
+        assertArrayEquals(new float[]{0f, 2000f, 4000f, 6000f}, ticks.values, 0f);
+
+        ticks = AxisTicks.compute(100f, 5);
+        assertArrayEquals(new float[]{0f, 25f, 50f, 75f, 100f}, ticks.values, 0f);
+
+        ticks = AxisTicks.compute(8500f, 6);
+        assertEquals(2000f, ticks.step, 0f);
+        assertEquals(10000f, ticks.max, 0f);
+    }
+
+    @Test
+    public void neverExceedsRequestedCountAndAlwaysCoversMaximum() {
+        for (int count = 2; count <= 12; count++) {
+            for (float max = 0.013f; max < 1e9f; max *= 1.37f) {
+                AxisTicks ticks = AxisTicks.compute(max, count);
+                assertTrue(ticks.values.length <= count);
+                assertTrue(ticks.values.length >= 2);
+                assertTrue(ticks.max >= max * (1 - 1e-6f));
+                assertEquals(0f, ticks.values[0], 0f);
+            }
+        }
+    }
+
+    @Test
+    public void degenerateMaximaGiveUnitAxis() {
+        assertEquals(1f, AxisTicks.compute(0f, 5).max, 0f);
+        assertEquals(1f, AxisTicks.compute(-3f, 5).max, 0f);
+        assertEquals(1f, AxisTicks.compute(Float.NaN, 5).max, 0f);
+    }
+}
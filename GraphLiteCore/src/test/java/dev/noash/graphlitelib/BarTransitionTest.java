@@ -0,0 +1,62 @@
+package dev.noash.graphlitelib;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BarTransitionTest {
+    // Three bars 10 px wide on a baseline at y = 100.
+    private static final float[] SHOWN = {0f, 50f, 10f, 100f, 20f, 40f, 30f, 100f, 40f, 80f, 50f, 100f};
+
+    @Test
+    public void onlyChangedBarsMoveAndDirtySpanCoversThem() {
+        float[] to = SHOWN.clone();
+        to[5] = 20f;
+        BarTransition transition = new BarTransition();
+        transition.startFrom(SHOWN, 0, 3, null, 3);
+
+        assertTrue(transition.prepare(to, 0, 3));
+        assertFalse(transition.moving[0]);
+        assertTrue(transition.moving[1]);
+        assertFalse(transition.moving[2]);
+        assertEquals(20f, transition.dirtyLeft, 0f);
+        assertEquals(30f, transition.dirtyRight, 0f);
+
+        transition.interpolate(to, 0.5f);
+        assertEquals(30f, transition.frame[5], 0f);
+    }
+
+    @Test
+    public void unchangedLayoutHasNothingToAnimate() {
+        BarTransition transition = new BarTransition();
+        transition.startFrom(SHOWN, 0, 3, null, 3);
+
+        assertFalse(transition.prepare(SHOWN.clone(), 0, 3));
+    }
+
+    @Test
+    public void matchedBarsMorphInsertedGrowAndRemovedShrink() {
+        // Old bars A, B, C become C, D: C moves to slot 0, D is inserted, A and B are removed.
+        float[] to = {0f, 30f, 10f, 100f, 20f, 60f, 30f, 100f};
+        BarTransition transition = new BarTransition();
+        transition.startFrom(SHOWN, 0, 3, new int[]{2, -1}, 2);
+        transition.prepare(to, 0, 2);
+        transition.interpolate(to, 0.5f);
+
+        assertArrayEquals(new float[]{20f, 55f, 30f, 100f}, copy(transition.frame, 0), 0f);
+        assertArrayEquals(new float[]{20f, 80f, 30f, 100f}, copy(transition.frame, 1), 0f);
+        assertEquals(2, transition.exitCount);
+        assertEquals(0, transition.exitIndex[0]);
+        assertEquals(1, transition.exitIndex[1]);
+        assertEquals(75f, transition.exitFrame[1], 0f);
+    }
+
+    private static float[] copy(float[] rects, int index) {
+        float[] out = new float[4];
+        System.arraycopy(rects, index * 4, out, 0, 4);
+        return out;
+    }
+}
@@ -0,0 +1,147 @@
+package dev.noash.graphlitelib;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ChartLayoutTest {
+
+    private static LineChartLayout.Input input(long sequence, int width, List<GraphLine> lines) {
+        return new LineChartLayout.Input(sequence, width, 600, lines, lines.get(0).getValues().size(), 0, 5);
+    }
+
+    @Test
+    public void lineLayoutMapsSamplesIntoThePlotArea() {
+        GraphLine line = new GraphLine(new float[]{0f, 50f, 100f});
+        RenderSnapshot snapshot = new LineChartLayout().layout(input(1, 520, Arrays.asList(line)));
+
+        // plot spans x 80..480 and y 40..540
+        assertEquals(200f, snapshot.xStep, 0f);
+        assertEquals(3, snapshot.lineVertexCounts[0]);
+        assertArrayEquals(new float[]{80f, 540f, 280f, 290f, 480f, 40f}, snapshot.lineVertices[0], 1e-3f);
+        assertArrayEquals(new float[]{100f, 75f, 50f, 25f, 0f}, snapshot.yTickValues, 1e-3f);
+        assertEquals(40f, snapshot.yTickPositions[0], 0f);
+        assertEquals(540f, snapshot.yTickPositions[4], 0f);
+    }
+
+    @Test
+    public void lineLayoutReusesVerticesOfUnchangedLines() {
+        GraphLine first = new GraphLine(new float[]{1f, 2f, 3f});
+        GraphLine second = new GraphLine(new float[]{3f, 2f, 1f});
+        List<GraphLine> lines = Arrays.asList(first, second);
+        LineChartLayout layout = new LineChartLayout();
+
+        RenderSnapshot a = layout.layout(input(1, 520, lines));
+        RenderSnapshot b = layout.layout(input(2, 520, lines));
+        assertSame(a.lineVertices[0], b.lineVertices[0]);
+        assertSame(a.lineVertices[1], b.lineVertices[1]);
+
+        second.setValues(FloatSeries.of(2f, 2f, 2f));
+        RenderSnapshot c = layout.layout(input(3, 520, lines));
+        assertSame(b.lineVertices[0], c.lineVertices[0]);
+        assertNotSame(b.lineVertices[1], c.lineVertices[1]);
+
+        RenderSnapshot d = layout.layout(input(4, 1000, lines));
+        assertNotSame(c.lineVertices[0], d.lineVertices[0]);
+    }
+
+    @Test
+    public void streamingLinesAreCopiedAtCaptureTime() {
+        GraphLine line = GraphLine.streaming(4).appendBatch(new float[]{1f, 2f, 3f});
+        LineChartLayout.Input input = new LineChartLayout.Input(1, 520, 600, Arrays.asList(line), 4, 0, 2);
+        line.append(100f);
+
+        RenderSnapshot snapshot = new LineChartLayout().layout(input);
+        assertEquals(3, snapshot.lineVertexCounts[0]);
+        // the appended 100 is not part of the capture; 5 is the nice axis top for a maximum of 3
+        assertEquals(5f, snapshot.yMax, 0f);
+    }
+
+    @Test
+    public void parallelLineLayoutMatchesSequentialLayout() {
+        Random random = new Random(3);
+        List<GraphLine> lines = new ArrayList<>();
+        for (int l = 0; l < 40; l++) {
+            float[] values = new float[20_000];
+            for (int i = 0; i < values.length; i++) values[i] = random.nextFloat() * (l + 1);
+            DownsampleMode mode = l % 2 == 0 ? DownsampleMode.MIN_MAX : DownsampleMode.LTTB;
+            lines.add(new GraphLine(values).setDownsampleMode(mode));
+        }
+        LineChartLayout sequential = new LineChartLayout();
+        LineChartLayout parallel = new LineChartLayout();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        parallel.pool = pool;
+        try {
+            for (int pass = 0; pass < 2; pass++) {
+                // Second pass zooms in, which packs vertices from the pyramids instead of the sampled indices.
+                LineChartLayout.Input input = pass == 0
+                        ? input(1, 1120, lines)
+                        : new LineChartLayout.Input(2, 1120, 600, lines, 20_000, 0, 5, 5_000f, 9_000f);
+                RenderSnapshot expected = sequential.layout(input);
+                RenderSnapshot actual = parallel.layout(input);
+                assertEquals(expected.yMax, actual.yMax, 0f);
+                for (int l = 0; l < lines.size(); l++) {
+                    assertEquals(expected.lineVertexCounts[l], actual.lineVertexCounts[l]);
+                    assertArrayEquals(expected.lineVertices[l], actual.lineVertices[l], 0f);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void barLayoutPlacesBarsFromTheAxis() {
+        RenderSnapshot snapshot = BarChartLayout.layout(1, 540, 520, FloatSeries.of(100f, 50f), 60f, 40f);
+
+        assertEquals(2, snapshot.barCount);
+        // plot bottom is 520 - 80, usable height 400
+        assertArrayEquals(new float[]{100f, 40f, 160f, 440f, 200f, 240f, 260f, 440f}, snapshot.barRects, 1e-3f);
+        assertArrayEquals(new float[]{130f, 230f}, snapshot.xLabelPositions, 1e-3f);
+        assertEquals(6, snapshot.yTickValues.length);
+    }
+
+    @Test
+    public void scrolledBarLayoutOnlyContainsVisibleBars() {
+        float[] values = new float[5000];
+        Arrays.fill(values, 50f);
+        // plot spans x 80..500; bars start 20 px right of the axis every 100 px
+        RenderSnapshot snapshot = BarChartLayout.layoutWindow(1, 540, 520, FloatSeries.of(values), 100f, 60f, 40f,
+                100_000f);
+
+        assertEquals(998, snapshot.firstBar);
+        assertEquals(7, snapshot.barCount);
+        assertEquals(100f + 998 * 100f - 100_000f, snapshot.barRects[0], 1e-3f);
+        assertTrue(snapshot.zoomed);
+        assertEquals(499_600f, BarChartLayout.maxScroll(540, 5000, 60f, 40f), 1e-3f);
+    }
+
+    @Test
+    public void hitTestingFindsNearestSlotAndLine() {
+        GraphLine low = new GraphLine(new float[]{0f, 10f, 20f});
+        GraphLine high = new GraphLine(new float[]{100f, 90f, 80f});
+        List<GraphLine> lines = Arrays.asList(low, high);
+        RenderSnapshot snapshot = new LineChartLayout().layout(input(1, 520, lines));
+
+        assertEquals(0, LineHitTester.nearestIndex(snapshot, -500f, 3));
+        assertEquals(1, LineHitTester.nearestIndex(snapshot, 279f, 3));
+        assertEquals(1, LineHitTester.nearestIndex(snapshot, 379f, 3));
+        assertEquals(2, LineHitTester.nearestIndex(snapshot, 381f, 3));
+        assertEquals(2, LineHitTester.nearestIndex(snapshot, 5000f, 3));
+        assertEquals(-1, LineHitTester.nearestIndex(snapshot, 100f, 0));
+
+        assertEquals(1, LineHitTester.nearestLine(snapshot, lines, 1, snapshot.yFor(95f)));
+        assertEquals(0, LineHitTester.nearestLine(snapshot, lines, 1, snapshot.yFor(5f)));
+        assertEquals(-1, LineHitTester.nearestLine(snapshot, lines, 7, 100f));
+    }
+}
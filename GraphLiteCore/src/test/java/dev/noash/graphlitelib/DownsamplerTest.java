@@ -0,0 +1,108 @@
+package dev.noash.graphlitelib;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DownsamplerTest {
+
+    private static FloatSeries noise(int size, long seed) {
+        Random random = new Random(seed);
+        float[] values = new float[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = (float) (Math.sin(i / 37.0) * 100 + random.nextGaussian());
+        }
+        return FloatSeries.of(values);
+    }
+
+    private static void assertWellFormed(FloatSeries data, int[] out, int count, int targetPoints) {
+        assertTrue("count " + count + " > target " + targetPoints, count <= targetPoints);
+        assertEquals(0, out[0]);
+        assertEquals(data.size() - 1, out[count - 1]);
+        for (int i = 1; i < count; i++) {
+            assertTrue("indices not strictly increasing at " + i, out[i] > out[i - 1]);
+        }
+    }
+
+    @Test
+    public void noneKeepsEverySample() {
+        FloatSeries data = noise(100, 1);
+        int[] out = new int[100];
+        int count = Downsampler.sample(data, DownsampleMode.NONE, 10, out);
+        assertEquals(100, count);
+        for (int i = 0; i < count; i++) assertEquals(i, out[i]);
+    }
+
+    @Test
+    public void shortSeriesAreNotReduced() {
+        FloatSeries data = noise(50, 2);
+        int[] out = new int[60];
+        for (DownsampleMode mode : DownsampleMode.values()) {
+            assertEquals(50, Downsampler.sample(data, mode, 60, out));
+            assertEquals(49, out[49]);
+        }
+    }
+
+    @Test
+    public void outputIsBoundedOrderedAndKeepsEndpoints() {
+        int[] sizes = {4, 5, 7, 100, 101, 1003, 10_007};
+        int[] targets = {3, 4, 5, 6, 7, 10, 99, 100};
+        for (int size : sizes) {
+            FloatSeries data = noise(size, size);
+            for (int target : targets) {
+                if (target >= size) continue;
+                for (DownsampleMode mode : new DownsampleMode[]{DownsampleMode.MIN_MAX, DownsampleMode.LTTB}) {
+                    int[] out = new int[target];
+                    int count = Downsampler.sample(data, mode, target, out);
+                    assertWellFormed(data, out, count, target);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void targetJustBelowSizeKeepsAlmostEverything() {
+        FloatSeries data = noise(1000, 3);
+        int[] out = new int[999];
+        int lttb = Downsampler.sample(data, DownsampleMode.LTTB, 999, out);
+        assertWellFormed(data, out, lttb, 999);
+        assertEquals(999, lttb);
+
+        int minMax = Downsampler.sample(data, DownsampleMode.MIN_MAX, 999, out);
+        assertWellFormed(data, out, minMax, 999);
+    }
+
+    @Test
+    public void minMaxKeepsPeaksAcrossUnevenBuckets() {
+        // 10_001 - 2 samples do not divide evenly into 49 buckets.
+        float[] values = new float[10_001];
+        int[] spikes = {1, 204, 205, 5000, 9998, 9999};
+        for (int i = 0; i < spikes.length; i++) {
+            values[spikes[i]] = i % 2 == 0 ? 1000f + i : -1000f - i;
+        }
+        FloatSeries data = FloatSeries.of(values);
+
+        int[] out = new int[100];
+        int count = Downsampler.sample(data, DownsampleMode.MIN_MAX, 100, out);
+        assertWellFormed(data, out, count, 100);
+        for (int spike : spikes) {
+            boolean kept = false;
+            for (int i = 0; i < count; i++) kept |= out[i] == spike;
+            assertTrue("spike at " + spike + " dropped", kept);
+        }
+    }
+
+    @Test
+    public void lttbKeepsIsolatedPeak() {
+        float[] values = new float[100_000];
+        values[54_321] = 1000f;
+        int[] out = new int[2000];
+        int count = Downsampler.sample(FloatSeries.of(values), DownsampleMode.LTTB, 2000, out);
+        boolean kept = false;
+        for (int i = 0; i < count; i++) kept |= out[i] == 54_321;
+        assertTrue(kept);
+    }
+}
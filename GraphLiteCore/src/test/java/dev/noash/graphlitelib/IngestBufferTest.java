@@ -0,0 +1,81 @@
+package dev.noash.graphlitelib;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IngestBufferTest {
+
+    @Test
+    public void drainAppendsOfferedSamplesAndBumpsSequence() {
+        AtomicInteger wakeUps = new AtomicInteger();
+        GraphLine line = GraphLine.streaming(8);
+        line.frameRequest = wakeUps::incrementAndGet;
+        IngestBuffer ingest = line.ingest();
+
+        assertTrue(ingest.offer(1f));
+        assertEquals(2, ingest.offer(new float[]{2f, 3f}, 0, 2));
+        assertEquals("only the first sample of a frame requests one", 1, wakeUps.get());
+
+        long version = line.dataVersion();
+        assertTrue(line.drainIngest());
+        assertEquals(1, ingest.sequence());
+        assertTrue(line.dataVersion() > version);
+        assertArrayEquals(new float[]{1f, 2f, 3f}, line.getValues().toArray(), 0f);
+        assertFalse("nothing new to drain", line.drainIngest());
+        assertEquals(1, ingest.sequence());
+    }
+
+    @Test
+    public void fullBackBufferDropsAndCounts() {
+        GraphLine line = GraphLine.streaming(4);
+        IngestBuffer ingest = line.ingest();
+
+        assertEquals(3, ingest.offer(new float[]{1f, 2f, 3f}, 0, 3));
+        assertEquals(1, ingest.offer(new float[]{4f, 5f}, 0, 2));
+        assertFalse(ingest.offer(6f));
+        assertEquals(2, ingest.dropped());
+
+        line.drainIngest();
+        assertTrue(ingest.offer(7f));
+        line.drainIngest();
+        assertArrayEquals(new float[]{2f, 3f, 4f, 7f}, line.getValues().toArray(), 0f);
+    }
+
+    @Test
+    public void concurrentProducersKeepTheirOrder() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 50_000;
+        GraphLine line = GraphLine.streaming(producers * perProducer);
+        IngestBuffer ingest = line.ingest();
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            int id = p;
+            new Thread(() -> {
+                // Sample value encodes producer and its counter; retry until the consumer makes room.
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ingest.offer(id * 1_000_000f + i)) Thread.yield();
+                }
+                done.countDown();
+            }).start();
+        }
+        while (done.getCount() > 0) {
+            line.drainIngest();
+        }
+        line.drainIngest();
+
+        float[] received = line.getValues().toArray();
+        assertEquals(producers * perProducer, received.length);
+        int[] next = new int[producers];
+        for (float value : received) {
+            int id = (int) (value / 1_000_000f);
+            assertEquals(next[id]++, (int) (value - id * 1_000_000f));
+        }
+    }
+}
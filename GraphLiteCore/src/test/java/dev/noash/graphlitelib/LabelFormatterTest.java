@@ -0,0 +1,64 @@
+package dev.noash.graphlitelib;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class LabelFormatterTest {
+
+    private static String rounded(float value) {
+        LabelFormatter formatter = new LabelFormatter().clear().appendRounded(value);
+        return new String(formatter.buffer, 0, formatter.length);
+    }
+
+    @Test
+    public void matchesStringFormatForEdgeCases() {
+        float[] values = {
+                0f, -0f, 0.4f, -0.4f, 0.5f, -0.5f, 1.5f, 2.5f, -2.5f, 0.49999997f, 6000f, 4800.5f,
+                Float.MIN_VALUE, -Float.MIN_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, 1e20f, 0x1p53f, 0x1p62f,
+                Float.NaN, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY
+        };
+        for (float value : values) {
+            assertEquals("value " + value, String.format("%.0f", value), rounded(value));
+        }
+    }
+
+    @Test
+    public void matchesStringFormatForRandomValues() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            float value = Float.intBitsToFloat(random.nextInt());
+            assertEquals("value " + value, String.format("%.0f", value), rounded(value));
+        }
+    }
+
+    @Test
+    public void appendsTextBeforeValueAndGrowsBuffer() {
+        LabelFormatter formatter = new LabelFormatter();
+        String title = "A fairly long series title that does not fit the initial buffer";
+        formatter.clear().append(title).append(" : ").appendRounded(1234.6f);
+        assertEquals(title + " : 1235", new String(formatter.buffer, 0, formatter.length));
+    }
+
+    private static String compact(float value, float step) {
+        LabelFormatter formatter = new LabelFormatter().clear().appendCompact(value, step);
+        return new String(formatter.buffer, 0, formatter.length);
+    }
+
+    @Test
+    public void compactNotationUsesSuffixesAndStepPrecision() {
+        assertEquals("0", compact(0f, 250f));
+        assertEquals("750", compact(750f, 250f));
+        assertEquals("1K", compact(1000f, 250f));
+        assertEquals("1.25K", compact(1250f, 250f));
+        assertEquals("1.5K", compact(1500f, 250f));
+        assertEquals("3.4M", compact(3_400_000f, 200_000f));
+        assertEquals("2B", compact(2e9f, 5e8f));
+        assertEquals("-1.2K", compact(-1200f, 200f));
+        assertEquals("0.05", compact(0.05f, 0.05f));
+        assertEquals("2.5", compact(2.5f, 0.5f));
+        assertEquals("NaN", compact(Float.NaN, 1f));
+    }
+}
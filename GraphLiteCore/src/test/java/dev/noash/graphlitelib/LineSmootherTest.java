@@ -0,0 +1,24 @@
+package dev.noash.graphlitelib;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class LineSmootherTest {
+
+    @Test
+    public void segmentsUseSamplesAsControlPointsAndEndAtMidpoints() {
+        float[] vertices = {0f, 0f, 10f, 20f, 20f, 0f};
+        float[] out = new float[LineSmoother.capacityFor(3)];
+        int n = LineSmoother.quadSegments(vertices, 3, out);
+
+        assertEquals(10, n);
+        assertArrayEquals(new float[]{0f, 0f, 0f, 0f, 5f, 10f, 10f, 20f, 15f, 10f}, out, 0f);
+    }
+
+    @Test
+    public void emptyInputWritesNothing() {
+        assertEquals(0, LineSmoother.quadSegments(new float[0], 0, new float[0]));
+    }
+}
@@ -0,0 +1,121 @@
+package dev.noash.graphlitelib;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MinMaxPyramidTest {
+
+    private static FloatSeries noise(int size, long seed) {
+        Random random = new Random(seed);
+        float[] values = new float[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = (float) (Math.sin(i / 53.0) * 100 + random.nextGaussian() * 10);
+        }
+        return FloatSeries.of(values);
+    }
+
+    @Test
+    public void narrowRangesReturnRawSamples() {
+        MinMaxPyramid pyramid = new MinMaxPyramid(noise(10_000, 1));
+        int[] out = new int[MinMaxPyramid.capacityFor(100)];
+        int count = pyramid.select(500, 580, 100, out);
+        assertEquals(80, count);
+        for (int i = 0; i < count; i++) assertEquals(500 + i, out[i]);
+    }
+
+    @Test
+    public void selectionsKeepExtremesWithinBudget() {
+        FloatSeries data = noise(200_000, 2);
+        MinMaxPyramid pyramid = new MinMaxPyramid(data);
+        Random random = new Random(3);
+
+        for (int round = 0; round < 200; round++) {
+            int from = random.nextInt(data.size() - 1);
+            int to = from + 1 + random.nextInt(data.size() - from);
+            int buckets = 1 + random.nextInt(1000);
+            int[] out = new int[MinMaxPyramid.capacityFor(buckets)];
+            int count = pyramid.select(from, to, buckets, out);
+
+            assertTrue(count > 0 && count <= MinMaxPyramid.capacityFor(buckets));
+            float selectedMin = Float.MAX_VALUE;
+            float selectedMax = -Float.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                if (i > 0) assertTrue("indices not strictly increasing", out[i] > out[i - 1]);
+                selectedMin = Math.min(selectedMin, data.get(out[i]));
+                selectedMax = Math.max(selectedMax, data.get(out[i]));
+            }
+            // Edge buckets may reach past the range, so the selection can only widen the extremes.
+            assertTrue(selectedMin <= data.min(from, to));
+            assertTrue(selectedMax >= data.max(from, to));
+        }
+    }
+
+    @Test
+    public void streamingPyramidFollowsAppendsEvictionsAndClears() {
+        RingFloatSeries ring = new RingFloatSeries(5_000);
+        RingMinMaxPyramid pyramid = new RingMinMaxPyramid(ring.capacity());
+        Random random = new Random(6);
+
+        for (int round = 0; round < 300; round++) {
+            if (round == 150) ring.clear();
+            int appended = random.nextInt(round % 50 == 0 ? 12_000 : 300);
+            for (int i = 0; i < appended; i++) ring.append((float) random.nextGaussian() * 100f);
+            FloatSeries data = ring.snapshot();
+            pyramid.update(data, ring.firstPosition());
+            if (data.size() < 2) continue;
+
+            int from = random.nextInt(data.size() - 1);
+            int to = from + 1 + random.nextInt(data.size() - from);
+            int buckets = 1 + random.nextInt(200);
+            int[] out = new int[MinMaxPyramid.capacityFor(buckets)];
+            int count = pyramid.select(from, to, buckets, out);
+
+            assertTrue(count > 0 && count <= MinMaxPyramid.capacityFor(buckets));
+            float selectedMin = Float.MAX_VALUE;
+            float selectedMax = -Float.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                if (i > 0) assertTrue("indices not strictly increasing", out[i] > out[i - 1]);
+                assertTrue(out[i] >= 0 && out[i] < data.size());
+                selectedMin = Math.min(selectedMin, data.get(out[i]));
+                selectedMax = Math.max(selectedMax, data.get(out[i]));
+            }
+            assertTrue(selectedMin <= data.min(from, to));
+            assertTrue(selectedMax >= data.max(from, to));
+        }
+    }
+
+    @Test
+    public void zoomedLayoutCostFollowsWidthNotDataSize() {
+        GraphLine line = new GraphLine(noise(1_000_000, 4)).setDownsampleMode(DownsampleMode.MIN_MAX);
+        LineChartLayout layout = new LineChartLayout();
+        LineChartLayout.Input input = new LineChartLayout.Input(1, 520, 600, Collections.singletonList(line),
+                1_000_000, 0, 5, 250_000f, 750_000f);
+
+        RenderSnapshot snapshot = layout.layout(input);
+        assertTrue(snapshot.lineVertexCounts[0] <= MinMaxPyramid.capacityFor(400));
+        assertEquals(250_000f, snapshot.xOrigin, 0f);
+        assertEquals(80f, snapshot.xFor(250_000f), 1e-3f);
+        assertEquals(480f, snapshot.xFor(750_000f), 1e-3f);
+        assertEquals(750_000, LineHitTester.nearestIndex(snapshot, 480f, 1_000_000), 1);
+    }
+
+    @Test
+    public void zoomedLinesWithoutDownsamplingAlsoUseThePyramid() {
+        GraphLine line = new GraphLine(noise(1_000_000, 5));
+        LineChartLayout layout = new LineChartLayout();
+
+        RenderSnapshot wide = layout.layout(new LineChartLayout.Input(1, 520, 600, Collections.singletonList(line),
+                1_000_000, 0, 5, 250_000f, 750_000f));
+        assertTrue(wide.lineVertexCounts[0] <= MinMaxPyramid.capacityFor(400));
+
+        // Fewer samples than pixel columns: every raw point is kept.
+        RenderSnapshot close = layout.layout(new LineChartLayout.Input(2, 520, 600, Collections.singletonList(line),
+                1_000_000, 0, 5, 1_000f, 1_100f));
+        assertEquals(1_100 + 2 - (1_000 - 1), close.lineVertexCounts[0]);
+    }
+}
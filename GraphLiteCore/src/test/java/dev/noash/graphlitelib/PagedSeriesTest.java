@@ -0,0 +1,119 @@
+package dev.noash.graphlitelib;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PagedSeriesTest {
+
+    /** Source whose value at sample i is i; loads are held until {@link #deliverAll()}. */
+    private static final class FakeSource implements ChartDataSource {
+        final int size;
+        final List<int[]> requests = new ArrayList<>();
+        final List<Callback> callbacks = new ArrayList<>();
+
+        FakeSource(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void loadRange(int start, int end, int bucketCount, Callback callback) {
+            requests.add(new int[]{start, end, bucketCount});
+            callbacks.add(callback);
+        }
+
+        void deliverAll() {
+            for (int r = 0; r < requests.size(); r++) {
+                int[] request = requests.get(r);
+                int bucketSize = (request[1] - request[0] + request[2] - 1) / request[2];
+                float[] buckets = new float[request[2]];
+                for (int b = 0; b < buckets.length; b++) buckets[b] = request[0] + b * bucketSize;
+                callbacks.get(r).onLoaded(buckets);
+            }
+            requests.clear();
+            callbacks.clear();
+        }
+    }
+
+    @Test
+    public void requestsVisiblePagesOncePlusOnePageAhead() {
+        FakeSource source = new FakeSource(1_000_000);
+        PagedSeries series = new PagedSeries(source);
+
+        series.request(2, 0, 300, 1);
+        // Buckets 0..299 span pages 0 and 1; page 2 is the prefetch in the pan direction.
+        assertEquals(3, source.requests.size());
+        assertEquals(0, source.requests.get(0)[0]);
+        assertEquals(PagedSeries.PAGE_BUCKETS * 4, source.requests.get(0)[1]);
+        assertEquals(PagedSeries.PAGE_BUCKETS, source.requests.get(0)[2]);
+
+        series.request(2, 0, 300, 1);
+        assertEquals("pending pages are not requested again", 3, source.requests.size());
+        assertTrue(Float.isNaN(series.get(40)));
+
+        long version = series.version();
+        source.deliverAll();
+        assertTrue(series.version() > version);
+        assertEquals(40f, series.get(40), 0f);
+        assertEquals(40f, series.get(43), 0f);
+
+        series.request(2, 0, 300, 1);
+        assertTrue(source.requests.isEmpty());
+    }
+
+    @Test
+    public void dropsLeastRecentlyUsedPages() {
+        FakeSource source = new FakeSource(100_000);
+        PagedSeries series = new PagedSeries(source, 2);
+
+        series.request(0, 0, 1, 1);
+        source.deliverAll();
+        assertEquals(2, series.cachedPages());
+
+        assertNotNull(series.page(0, 0));
+        series.request(0, 2 * PagedSeries.PAGE_BUCKETS, 2 * PagedSeries.PAGE_BUCKETS + 1, 0);
+        source.deliverAll();
+
+        assertEquals(2, series.cachedPages());
+        assertNull(series.page(0, 1));
+        assertNotNull(series.page(0, 2));
+    }
+
+    @Test
+    public void layoutDrawsPlaceholdersUntilPagesArrive() {
+        FakeSource source = new FakeSource(10_000_000);
+        PagedSeries series = new PagedSeries(source);
+        List<GraphLine> lines = Collections.singletonList(new GraphLine(series));
+        LineChartLayout layout = new LineChartLayout();
+
+        RenderSnapshot loading = layout.layout(new LineChartLayout.Input(1, 1120, 600, lines, series.size(), 0, 5));
+        assertFalse(source.requests.isEmpty());
+        assertTrue("a few pages cover the whole view", source.requests.size() <= 12);
+        assertEquals(2, loading.placeholders.length);
+        assertEquals(loading.plotLeft, loading.placeholders[0], 0f);
+        assertEquals(loading.plotRight, loading.placeholders[1], 1e-3f);
+        assertTrue(Float.isNaN(loading.lineVertices[0][1]));
+
+        source.deliverAll();
+        RenderSnapshot loaded = layout.layout(new LineChartLayout.Input(2, 1120, 600, lines, series.size(), 0, 5));
+        assertEquals(0, loaded.placeholders.length);
+        int count = loaded.lineVertexCounts[0];
+        assertTrue(count >= 1000 && count <= 4000);
+        for (int k = 0; k < count * 2; k++) {
+            assertFalse(Float.isNaN(loaded.lineVertices[0][k]));
+        }
+    }
+}
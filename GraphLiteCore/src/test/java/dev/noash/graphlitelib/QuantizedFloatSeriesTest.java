@@ -0,0 +1,61 @@
+package dev.noash.graphlitelib;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class QuantizedFloatSeriesTest {
+
+    @Test
+    public void decodedValuesStayWithinHalfAStep() {
+        Random random = new Random(5);
+        float[] values = new float[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (float) Math.sin(i / 50.0) * 1000f + random.nextFloat() * 20f;
+        }
+        QuantizedFloatSeries series = QuantizedFloatSeries.encode(values);
+
+        // Half a step, plus float rounding in the decode arithmetic.
+        float tolerance = series.maxError() + Math.ulp(1000f) * 4f;
+        assertTrue(series.maxError() < 0.05f);
+        float[] decoded = series.toArray();
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], series.get(i), tolerance);
+            assertEquals(series.get(i), decoded[i], 0f);
+        }
+    }
+
+    @Test
+    public void rangeExtremesMatchDecodedValues() {
+        Random random = new Random(9);
+        float[] values = new float[1_000];
+        for (int i = 0; i < values.length; i++) values[i] = random.nextFloat() * 100f;
+        QuantizedFloatSeries series = QuantizedFloatSeries.encode(values);
+        FloatSeries decoded = FloatSeries.of(series.toArray());
+
+        int[][] ranges = {{0, 1000}, {0, 256}, {3, 900}, {256, 512}, {700, 701}, {768, 1000}};
+        for (int[] range : ranges) {
+            assertEquals(decoded.min(range[0], range[1]), series.min(range[0], range[1]), 0f);
+            assertEquals(decoded.max(range[0], range[1]), series.max(range[0], range[1]), 0f);
+        }
+    }
+
+    @Test
+    public void keepsGapsAndConstantBlocks() {
+        float[] values = new float[300];
+        Arrays.fill(values, 42f);
+        values[10] = Float.NaN;
+        values[280] = Float.POSITIVE_INFINITY;
+        QuantizedFloatSeries series = QuantizedFloatSeries.encode(values);
+
+        assertEquals(42f, series.get(0), 0f);
+        assertTrue(Float.isNaN(series.get(10)));
+        assertTrue(Float.isNaN(series.get(280)));
+        assertEquals(42f, series.max(), 0f);
+        assertEquals(42f, series.min(), 0f);
+    }
+}
@@ -0,0 +1,129 @@
+package dev.noash.graphlitelib;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RingFloatSeriesTest {
+
+    @Test
+    public void matchesBruteForceAcrossManyWrapArounds() {
+        int[] capacities = {1, 2, 3, 37, 256};
+        for (int capacity : capacities) {
+            Random random = new Random(capacity);
+            RingFloatSeries ring = new RingFloatSeries(capacity);
+            ArrayDeque<Float> window = new ArrayDeque<>();
+
+            for (int n = 0; n < capacity * 7 + 3; n++) {
+                // Small value range so equal values hit the deque's tie handling.
+                float value = random.nextInt(20) - 10;
+                ring.append(value);
+                window.addLast(value);
+                if (window.size() > capacity) window.removeFirst();
+
+                assertWindow(window, ring);
+            }
+        }
+    }
+
+    @Test
+    public void batchAppendMatchesSingleAppends() {
+        Random random = new Random(7);
+        float[] values = new float[1000];
+        for (int i = 0; i < values.length; i++) values[i] = random.nextFloat();
+
+        RingFloatSeries single = new RingFloatSeries(64);
+        RingFloatSeries batch = new RingFloatSeries(64);
+        for (float v : values) single.append(v);
+        batch.append(values, 0, 500);
+        batch.append(values, 500, 500);
+
+        assertArrayEquals(single.toArray(), batch.toArray(), 0f);
+        assertEquals(single.min(), batch.min(), 0f);
+        assertEquals(single.max(), batch.max(), 0f);
+    }
+
+    @Test
+    public void copyToHandlesSubRangesThatWrap() {
+        RingFloatSeries ring = new RingFloatSeries(10);
+        for (int i = 0; i < 27; i++) ring.append(i);
+
+        float[] out = new float[6];
+        ring.copyTo(2, out, 1, 5);
+        assertArrayEquals(new float[]{0, 19, 20, 21, 22, 23}, out, 0f);
+        assertEquals(19f, ring.min(2, 7), 0f);
+        assertEquals(23f, ring.max(2, 7), 0f);
+    }
+
+    @Test
+    public void versionKeepsIncreasingThroughClear() {
+        RingFloatSeries ring = new RingFloatSeries(4);
+        ring.append(1f);
+        ring.append(2f);
+        long before = ring.version();
+
+        ring.clear();
+        assertEquals(0, ring.size());
+        assertTrue(ring.version() > before);
+
+        long cleared = ring.version();
+        ring.append(1f);
+        ring.append(2f);
+        assertNotEquals(before, ring.version());
+        assertTrue(ring.version() > cleared);
+        assertEquals(2f, ring.max(), 0f);
+        assertEquals(1f, ring.min(), 0f);
+    }
+
+    @Test
+    public void snapshotIsSharedUntilTheWindowChanges() {
+        RingFloatSeries ring = new RingFloatSeries(3);
+        ring.append(1f);
+        ring.append(2f);
+        FloatSeries first = ring.snapshot();
+        assertSame(first, ring.snapshot());
+
+        ring.append(3f);
+        ring.append(4f);
+        FloatSeries second = ring.snapshot();
+        assertNotSame(first, second);
+        assertArrayEquals(new float[]{1f, 2f}, first.toArray(), 0f);
+        assertArrayEquals(new float[]{2f, 3f, 4f}, second.toArray(), 0f);
+    }
+
+    @Test
+    public void graphLineClearNotifiesListeners() {
+        GraphLine line = GraphLine.streaming(8).append(3f);
+        int[] notifications = {0};
+        line.addDataListener(changed -> notifications[0]++);
+
+        line.clear();
+        assertEquals(1, notifications[0]);
+        assertEquals(0, line.getValues().size());
+    }
+
+    private static void assertWindow(ArrayDeque<Float> window, RingFloatSeries ring) {
+        assertEquals(window.size(), ring.size());
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        float[] expected = new float[window.size()];
+        int i = 0;
+        for (float v : window) {
+            assertEquals(v, ring.get(i), 0f);
+            expected[i++] = v;
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        assertEquals(min, ring.min(), 0f);
+        assertEquals(max, ring.max(), 0f);
+        assertArrayEquals(expected, ring.toArray(), 0f);
+    }
+}
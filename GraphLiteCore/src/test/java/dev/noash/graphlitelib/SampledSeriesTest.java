@@ -0,0 +1,40 @@
+package dev.noash.graphlitelib;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SampledSeriesTest {
+
+    @Test
+    public void reusesIndicesUntilSomethingChanges() {
+        GraphLine line = new GraphLine(new float[]{1f, 2f, 3f});
+        SampledSeries sampled = new SampledSeries();
+
+        assertTrue(sampled.update(line, 100));
+        assertFalse(sampled.update(line, 100));
+        assertTrue(sampled.update(line, 200));
+        assertTrue(sampled.update(line.setDownsampleMode(DownsampleMode.LTTB), 200));
+        assertTrue(sampled.update(line.setValues(FloatSeries.of(4f, 5f)), 200));
+        assertEquals(2, sampled.count);
+    }
+
+    @Test
+    public void inPlaceWritesArePickedUpAfterInvalidateData() {
+        float[] values = new float[1000];
+        GraphLine line = new GraphLine(values).setDownsampleMode(DownsampleMode.MIN_MAX);
+        SampledSeries sampled = new SampledSeries();
+        sampled.update(line, 10);
+
+        values[500] = 99f;
+        assertFalse(sampled.update(line, 10));
+
+        line.invalidateData();
+        assertTrue(sampled.update(line, 10));
+        boolean kept = false;
+        for (int i = 0; i < sampled.count; i++) kept |= sampled.indices[i] == 500;
+        assertTrue(kept);
+    }
+}
@@ -0,0 +1,94 @@
+package dev.noash.graphlitelib;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class SeriesFileTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTripsFloat32Columns() throws IOException {
+        Random random = new Random(7);
+        float[] temperature = new float[100_003];
+        float[] pressure = new float[temperature.length];
+        for (int i = 0; i < temperature.length; i++) {
+            temperature[i] = (float) random.nextGaussian() * 10 + 20;
+            pressure[i] = 1000 + i % 17;
+        }
+        Path path = folder.newFile("session.glsf").toPath();
+        SeriesFile.write(path, Arrays.asList("temperature", "pressure"), Arrays.asList(temperature, pressure));
+
+        SeriesFile file = SeriesFile.open(path);
+        assertEquals(2, file.columnCount());
+        assertEquals(temperature.length, file.rowCount());
+        assertEquals("pressure", file.columnName(1));
+        assertNull(file.column("humidity"));
+
+        FloatSeries series = file.column("temperature");
+        assertArrayEquals(temperature, series.toArray(), 0f);
+        assertEquals(FloatSeries.of(temperature).max(), series.max(), 0f);
+        assertEquals(FloatSeries.of(temperature).min(500, 900), series.min(500, 900), 0f);
+        assertArrayEquals(pressure, file.column(1).toArray(), 0f);
+
+        int[] mapped = new int[1000];
+        int[] heap = new int[1000];
+        assertEquals(Downsampler.sample(FloatSeries.of(temperature), DownsampleMode.LTTB, 1000, heap),
+                Downsampler.sample(series, DownsampleMode.LTTB, 1000, mapped));
+        assertArrayEquals(heap, mapped);
+    }
+
+    @Test
+    public void readsFloat64Columns() throws IOException {
+        byte[] name = "v".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer bytes = ByteBuffer.allocate(32 + 3 * 8).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.putInt(SeriesFile.MAGIC).putInt(SeriesFile.FORMAT_VERSION).putInt(1).putInt(0).putLong(3);
+        bytes.put(SeriesFile.TYPE_FLOAT64).put((byte) 0).putShort((short) name.length).put(name);
+        bytes.position(32);
+        bytes.putDouble(1.5).putDouble(-2.25).putDouble(1e10);
+        Path path = folder.newFile("doubles.glsf").toPath();
+        Files.write(path, bytes.array());
+
+        FloatSeries series = SeriesFile.open(path).column("v");
+        assertArrayEquals(new float[]{1.5f, -2.25f, 1e10f}, series.toArray(), 0f);
+        assertEquals(-2.25f, series.min(), 0f);
+    }
+
+    @Test
+    public void rejectsForeignAndTruncatedFiles() throws IOException {
+        Path foreign = folder.newFile("foreign.bin").toPath();
+        Files.write(foreign, new byte[64]);
+        assertOpenFails(foreign);
+
+        Path truncated = folder.newFile("truncated.glsf").toPath();
+        SeriesFile.write(truncated, Arrays.asList("a"), Arrays.asList(new float[1000]));
+        byte[] content = Files.readAllBytes(truncated);
+        Files.write(truncated, Arrays.copyOf(content, content.length - 8));
+        assertOpenFails(truncated);
+    }
+
+    private static void assertOpenFails(Path path) {
+        try {
+            SeriesFile.open(path);
+            fail("expected IOException for " + path);
+        } catch (IOException expected) {
+            // ok
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package dev.noash.graphlitelib;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class TimestampsTest {
+
+    @Test
+    public void decodesAndSearchesIrregularTimes() {
+        Random random = new Random(11);
+        long[] times = new long[1000];
+        long t = 1_700_000_000_000L;
+        for (int i = 0; i < times.length; i++) {
+            // Mostly 100 ms apart with occasional multi-hour gaps.
+            t += random.nextInt(50) == 0 ? 3_600_000L * (1 + random.nextInt(5)) : 80 + random.nextInt(40);
+            times[i] = t;
+        }
+        Timestamps timestamps = Timestamps.of(times);
+
+        for (int i = 0; i < times.length; i++) {
+            assertEquals(times[i], timestamps.get(i));
+            assertEquals(i, timestamps.floorIndex(times[i]));
+            assertEquals(i, timestamps.ceilIndex(times[i]));
+            assertEquals(i, timestamps.nearestIndex(times[i] + 1));
+        }
+        assertEquals(-1, timestamps.floorIndex(times[0] - 1));
+        assertEquals(times.length, timestamps.ceilIndex(times[times.length - 1] + 1));
+    }
+
+    @Test
+    public void keepsBlocksWithHugeGaps() {
+        long[] times = {0L, 1L, Long.MAX_VALUE / 2, Long.MAX_VALUE / 2 + 5};
+        Timestamps timestamps = Timestamps.of(times);
+        for (int i = 0; i < times.length; i++) {
+            assertEquals(times[i], timestamps.get(i));
+        }
+        assertEquals(2, timestamps.nearestIndex(Long.MAX_VALUE / 2 - 10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDecreasingTimes() {
+        Timestamps.of(5L, 3L);
+    }
+
+    @Test
+    public void timestampsStayMatchedToValues() {
+        GraphLine line = new GraphLine(new float[]{1f, 2f, 3f}).setTimestamps(new long[]{10L, 20L, 30L});
+        line.setValues(FloatSeries.of(4f, 5f, 6f));
+        assertEquals(30L, line.getTimestamps().last());
+
+        line.setValues(FloatSeries.of(4f, 5f));
+        assertNull("a size change drops the timestamps", line.getTimestamps());
+
+        line.setTimestamps(new long[]{1L, 2L});
+        assertThrows(IllegalStateException.class, () -> line.setStreamingCapacity(10));
+        assertThrows(IllegalStateException.class,
+                () -> GraphLine.streaming(2).setTimestamps(new long[]{1L, 2L}));
+    }
+
+    @Test
+    public void downsamplingBucketsByTime() {
+        // 900 samples packed into the first second, then 100 spread over the next 99 seconds.
+        int size = 1000;
+        float[] values = new float[size];
+        long[] times = new long[size];
+        Random random = new Random(12);
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextFloat();
+            times[i] = i < 900 ? i : 900 + (i - 899) * 1000L;
+        }
+        int[] out = new int[22];
+
+        for (DownsampleMode mode : new DownsampleMode[]{DownsampleMode.MIN_MAX, DownsampleMode.LTTB}) {
+            int byIndex = Downsampler.sample(FloatSeries.of(values), mode, 22, out);
+            int sparseByIndex = countFrom(out, byIndex, 900);
+            int byTime = Downsampler.sample(FloatSeries.of(values), Timestamps.of(times), mode, 22, out);
+            int sparseByTime = countFrom(out, byTime, 900);
+
+            assertTrue(mode + ": " + sparseByIndex + " vs " + sparseByTime, sparseByTime > byTime / 2);
+            assertTrue(sparseByIndex < byIndex / 4);
+        }
+    }
+
+    private static int countFrom(int[] indices, int count, int first) {
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (indices[i] >= first) n++;
+        }
+        return n;
+    }
+
+    @Test
+    public void linesWithDifferentRatesLineUpByTime() {
+        // One line sampled every 10 units, the other every 40 units with a gap, over the same period.
+        GraphLine dense = new GraphLine(new float[]{1f, 2f, 3f, 4f, 5f})
+                .setTimestamps(new long[]{1000, 1010, 1020, 1030, 1040});
+        GraphLine sparse = new GraphLine(new float[]{5f, 1f}).setTimestamps(new long[]{1000, 1040});
+        List<GraphLine> lines = Arrays.asList(dense, sparse);
+        RenderSnapshot snapshot = new LineChartLayout().layout(
+                new LineChartLayout.Input(1, 520, 600, lines, 5, 0, 5));
+
+        assertEquals(40f, snapshot.fullSpan, 0f);
+        assertEquals(1000L, snapshot.timeStart);
+        // 400 px wide plot over 40 time units.
+        assertEquals(80f, snapshot.lineVertices[0][0], 1e-3f);
+        assertEquals(180f, snapshot.lineVertices[0][2 * 1], 1e-3f);
+        assertEquals(snapshot.lineVertices[0][2 * 4], snapshot.lineVertices[1][2], 1e-3f);
+
+        assertEquals(3, LineHitTester.nearestIndex(snapshot, 385f, dense));
+        assertEquals(1, LineHitTester.sampleFor(snapshot, lines, 1, 4));
+        assertEquals(0, LineHitTester.sampleFor(snapshot, lines, 1, 1));
+        assertEquals(480f, LineHitTester.sampleX(snapshot, lines, 1, 1), 1e-3f);
+    }
+
+    @Test
+    public void zoomedTimeWindowSelectsSamplesByTime() {
+        long[] times = new long[100];
+        float[] values = new float[100];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = i < 50 ? i : 1000 + i;
+            values[i] = i;
+        }
+        List<GraphLine> lines = Arrays.asList(new GraphLine(values).setTimestamps(times));
+        RenderSnapshot snapshot = new LineChartLayout().layout(
+                new LineChartLayout.Input(1, 520, 600, lines, 100, 0, 5, 1040f, 1060f));
+
+        // Samples at times 1050..1060 are on screen; neighbours outside it keep the clipped edges drawn.
+        assertEquals(14, snapshot.lineVertexCounts[0]);
+        assertEquals(80f + (1050 - 1040) * 20f, snapshot.lineVertices[0][4], 1e-3f);
+    }
+}
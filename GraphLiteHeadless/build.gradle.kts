@@ -0,0 +1,17 @@
+plugins {
+    `java-library`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    api(project(":GraphLiteCore"))
+    testImplementation(libs.junit)
+}
+
+tasks.withType<Test> {
+    systemProperty("java.awt.headless", "true")
+}
@@ -0,0 +1,127 @@
+package dev.noash.graphlitelib;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.LinearGradientPaint;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.geom.RoundRectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+
+/** {@link ChartRenderer} over a {@code java.awt} {@link Graphics2D}, e.g. one from a {@code BufferedImage}. */
+final class AwtRenderer implements ChartRenderer {
+    private final Graphics2D graphics;
+    /** Clips to restore; null entries mean "no clip". */
+    private final List<Shape> clips = new ArrayList<>();
+    private float[] segments = new float[0];
+
+    AwtRenderer(Graphics2D graphics) {
+        this.graphics = graphics;
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2, int color, float strokeWidth) {
+        graphics.setColor(color(color));
+        graphics.setStroke(new BasicStroke(strokeWidth));
+        graphics.draw(new Line2D.Float(x1, y1, x2, y2));
+    }
+
+    @Override
+    public void drawPolyline(float[] vertices, int count, boolean smooth, int color, float strokeWidth) {
+        if (count == 0) return;
+        Path2D.Float path = new Path2D.Float(Path2D.WIND_NON_ZERO, count + 1);
+        if (smooth) {
+            int capacity = LineSmoother.capacityFor(count);
+            if (segments.length < capacity) segments = new float[capacity];
+            int n = LineSmoother.quadSegments(vertices, count, segments);
+            path.moveTo(segments[0], segments[1]);
+            for (int i = 2; i < n; i += 4) {
+                path.quadTo(segments[i], segments[i + 1], segments[i + 2], segments[i + 3]);
+            }
+        } else {
+            path.moveTo(vertices[0], vertices[1]);
+            for (int k = 1; k < count; k++) {
+                path.lineTo(vertices[k * 2], vertices[k * 2 + 1]);
+            }
+        }
+        graphics.setColor(color(color));
+        // Android's default Paint uses butt caps and miter joins, like BasicStroke's defaults.
+        graphics.setStroke(new BasicStroke(strokeWidth));
+        graphics.draw(path);
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, int color) {
+        graphics.setColor(color(color));
+        graphics.fill(new Ellipse2D.Float(cx - radius, cy - radius, radius * 2, radius * 2));
+    }
+
+    @Override
+    public void drawRoundRect(float left, float top, float right, float bottom, float radius, int color) {
+        graphics.setColor(color(color));
+        graphics.fill(roundRect(left, top, right, bottom, radius));
+    }
+
+    @Override
+    public void drawGradientRoundRect(float left, float top, float right, float bottom, float radius,
+                                      int[] colors, float gradientTop, float gradientBottom) {
+        if (colors.length < 2 || gradientBottom <= gradientTop) {
+            drawRoundRect(left, top, right, bottom, radius, colors.length > 0 ? colors[0] : 0);
+            return;
+        }
+        float[] fractions = new float[colors.length];
+        Color[] awtColors = new Color[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+            fractions[i] = (float) i / (colors.length - 1);
+            awtColors[i] = color(colors[i]);
+        }
+        graphics.setPaint(new LinearGradientPaint(0f, gradientTop, 0f, gradientBottom, fractions, awtColors));
+        graphics.fill(roundRect(left, top, right, bottom, radius));
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, float textSize, int color, TextAlign align) {
+        graphics.setColor(color(color));
+        graphics.setFont(AwtText.font(textSize));
+        graphics.drawString(text, AwtText.left(text, x, textSize, align), y);
+    }
+
+    @Override
+    public void drawText(char[] text, int start, int count, float x, float y, float textSize, int color,
+                         TextAlign align) {
+        drawText(new String(text, start, count), x, y, textSize, color, align);
+    }
+
+    @Override
+    public float measureText(char[] text, int start, int count, float textSize) {
+        return AwtText.width(new String(text, start, count), textSize);
+    }
+
+    @Override
+    public void pushClip(float left, float top, float right, float bottom) {
+        clips.add(graphics.getClip());
+        graphics.clip(new Rectangle2D.Float(left, top, right - left, bottom - top));
+    }
+
+    @Override
+    public void popClip() {
+        graphics.setClip(clips.remove(clips.size() - 1));
+    }
+
+    private static RoundRectangle2D.Float roundRect(float left, float top, float right, float bottom, float radius) {
+        return new RoundRectangle2D.Float(left, top, right - left, bottom - top, radius * 2, radius * 2);
+    }
+
+    private static Color color(int argb) {
+        return new Color(argb, true);
+    }
+}
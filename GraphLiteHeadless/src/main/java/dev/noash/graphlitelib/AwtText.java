@@ -0,0 +1,33 @@
+package dev.noash.graphlitelib;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+
+/** Text metrics shared by the headless renderers, so SVG and raster output place labels the same way. */
+final class AwtText {
+    static final String FONT_FAMILY = Font.SANS_SERIF;
+    private static final FontRenderContext CONTEXT = new FontRenderContext(null, true, true);
+
+    private AwtText() {
+    }
+
+    static Font font(float textSize) {
+        return new Font(FONT_FAMILY, Font.PLAIN, 1).deriveFont(textSize);
+    }
+
+    static float width(String text, float textSize) {
+        return (float) font(textSize).getStringBounds(text, CONTEXT).getWidth();
+    }
+
+    /** Left edge of text drawn at {@code x} with {@code align}. */
+    static float left(String text, float x, float textSize, ChartRenderer.TextAlign align) {
+        switch (align) {
+            case CENTER:
+                return x - width(text, textSize) / 2f;
+            case RIGHT:
+                return x - width(text, textSize);
+            default:
+                return x;
+        }
+    }
+}
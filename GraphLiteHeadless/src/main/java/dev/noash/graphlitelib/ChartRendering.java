@@ -0,0 +1,103 @@
+package dev.noash.graphlitelib;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Renders {@link ChartSpec}s without Android, using the same layout and painters as the chart views. Output is SVG
+ * markup or an ARGB {@link BufferedImage}; the batch methods spread a list of charts over a {@link ForkJoinPool}.
+ * Set {@code java.awt.headless=true} on servers without a display.
+ */
+public final class ChartRendering {
+    /** Charts per fork-join leaf; one chart is already plenty of work for a task. */
+    private static final int BATCH_THRESHOLD = 1;
+
+    private ChartRendering() {
+    }
+
+    public static String toSvg(ChartSpec spec) {
+        SvgRenderer renderer = new SvgRenderer(spec.getWidth(), spec.getHeight());
+        spec.paint(renderer);
+        return renderer.finish();
+    }
+
+    public static BufferedImage toImage(ChartSpec spec) {
+        BufferedImage image = new BufferedImage(spec.getWidth(), spec.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            spec.paint(new AwtRenderer(graphics));
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    public static void writePng(ChartSpec spec, OutputStream out) throws IOException {
+        if (!ImageIO.write(toImage(spec), "png", out)) {
+            throw new IOException("No PNG writer available");
+        }
+    }
+
+    /** Renders {@code specs} in parallel on the common pool; results are in input order. */
+    public static List<String> toSvg(List<? extends ChartSpec> specs) {
+        return toSvg(specs, ForkJoinPool.commonPool());
+    }
+
+    public static List<String> toSvg(List<? extends ChartSpec> specs, ForkJoinPool pool) {
+        return renderAll(specs, pool, ChartRendering::toSvg, new String[specs.size()]);
+    }
+
+    /** Renders {@code specs} in parallel on the common pool; results are in input order. */
+    public static List<BufferedImage> toImages(List<? extends ChartSpec> specs) {
+        return toImages(specs, ForkJoinPool.commonPool());
+    }
+
+    public static List<BufferedImage> toImages(List<? extends ChartSpec> specs, ForkJoinPool pool) {
+        return renderAll(specs, pool, ChartRendering::toImage, new BufferedImage[specs.size()]);
+    }
+
+    private static <T> List<T> renderAll(List<? extends ChartSpec> specs, ForkJoinPool pool,
+                                         Function<ChartSpec, T> render, T[] out) {
+        pool.invoke(new RenderTask<>(specs, render, out, 0, specs.size()));
+        return Arrays.asList(out);
+    }
+
+    private static final class RenderTask<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<? extends ChartSpec> specs;
+        private final Function<ChartSpec, T> render;
+        private final T[] out;
+        private final int from;
+        private final int to;
+
+        RenderTask(List<? extends ChartSpec> specs, Function<ChartSpec, T> render, T[] out, int from, int to) {
+            this.specs = specs;
+            this.render = render;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    out[i] = render.apply(specs.get(i));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RenderTask<>(specs, render, out, from, mid), new RenderTask<>(specs, render, out, mid, to));
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package dev.noash.graphlitelib;
+
+import java.util.Locale;
+
+/**
+ * {@link ChartRenderer} that writes an SVG document. Create one per chart; {@link #finish()} returns the markup.
+ */
+final class SvgRenderer implements ChartRenderer {
+    private final StringBuilder body = new StringBuilder(4096);
+    private final StringBuilder defs = new StringBuilder();
+    private final int width;
+    private final int height;
+    private int nextId;
+
+    private int[] gradientColors;
+    private float gradientTop;
+    private float gradientBottom;
+    private String gradientId;
+
+    SvgRenderer(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    String finish() {
+        StringBuilder svg = new StringBuilder(body.length() + defs.length() + 160);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(width)
+                .append("\" height=\"").append(height)
+                .append("\" viewBox=\"0 0 ").append(width).append(' ').append(height).append("\">\n");
+        if (defs.length() > 0) {
+            svg.append("<defs>\n").append(defs).append("</defs>\n");
+        }
+        return svg.append(body).append("</svg>\n").toString();
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2, int color, float strokeWidth) {
+        body.append("<line x1=\"").append(num(x1)).append("\" y1=\"").append(num(y1))
+                .append("\" x2=\"").append(num(x2)).append("\" y2=\"").append(num(y2)).append('"');
+        stroke(color, strokeWidth);
+        body.append("/>\n");
+    }
+
+    @Override
+    public void drawPolyline(float[] vertices, int count, boolean smooth, int color, float strokeWidth) {
+        if (count == 0) return;
+        body.append("<path d=\"");
+        if (smooth) {
+            float[] quads = new float[LineSmoother.capacityFor(count)];
+            int n = LineSmoother.quadSegments(vertices, count, quads);
+            body.append('M').append(num(quads[0])).append(' ').append(num(quads[1]));
+            for (int i = 2; i < n; i += 4) {
+                body.append(" Q").append(num(quads[i])).append(' ').append(num(quads[i + 1]))
+                        .append(' ').append(num(quads[i + 2])).append(' ').append(num(quads[i + 3]));
+            }
+        } else {
+            body.append('M').append(num(vertices[0])).append(' ').append(num(vertices[1]));
+            for (int k = 1; k < count; k++) {
+                body.append(" L").append(num(vertices[k * 2])).append(' ').append(num(vertices[k * 2 + 1]));
+            }
+        }
+        body.append("\" fill=\"none\"");
+        stroke(color, strokeWidth);
+        body.append("/>\n");
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, int color) {
+        body.append("<circle cx=\"").append(num(cx)).append("\" cy=\"").append(num(cy))
+                .append("\" r=\"").append(num(radius)).append('"');
+        fill(color);
+        body.append("/>\n");
+    }
+
+    @Override
+    public void drawRoundRect(float left, float top, float right, float bottom, float radius, int color) {
+        rect(left, top, right, bottom, radius);
+        fill(color);
+        body.append("/>\n");
+    }
+
+    @Override
+    public void drawGradientRoundRect(float left, float top, float right, float bottom, float radius,
+                                      int[] colors, float gradientTop, float gradientBottom) {
+        if (gradientId == null || colors != gradientColors || gradientTop != this.gradientTop
+                || gradientBottom != this.gradientBottom) {
+            gradientId = "g" + nextId++;
+            gradientColors = colors;
+            this.gradientTop = gradientTop;
+            this.gradientBottom = gradientBottom;
+            defs.append("<linearGradient id=\"").append(gradientId)
+                    .append("\" gradientUnits=\"userSpaceOnUse\" x1=\"0\" y1=\"").append(num(gradientTop))
+                    .append("\" x2=\"0\" y2=\"").append(num(gradientBottom)).append("\">\n");
+            for (int i = 0; i < colors.length; i++) {
+                float offset = colors.length == 1 ? 0f : (float) i / (colors.length - 1);
+                defs.append("<stop offset=\"").append(num(offset)).append("\" stop-color=\"")
+                        .append(rgb(colors[i])).append('"');
+                int alpha = colors[i] >>> 24;
+                if (alpha != 0xFF) defs.append(" stop-opacity=\"").append(num(alpha / 255f)).append('"');
+                defs.append("/>\n");
+            }
+            defs.append("</linearGradient>\n");
+        }
+        rect(left, top, right, bottom, radius);
+        body.append(" fill=\"url(#").append(gradientId).append(")\"/>\n");
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, float textSize, int color, TextAlign align) {
+        body.append("<text x=\"").append(num(AwtText.left(text, x, textSize, align))).append("\" y=\"").append(num(y))
+                .append("\" font-family=\"sans-serif\" font-size=\"").append(num(textSize)).append('"');
+        fill(color);
+        body.append('>');
+        escape(text);
+        body.append("</text>\n");
+    }
+
+    @Override
+    public void drawText(char[] text, int start, int count, float x, float y, float textSize, int color,
+                         TextAlign align) {
+        drawText(new String(text, start, count), x, y, textSize, color, align);
+    }
+
+    @Override
+    public float measureText(char[] text, int start, int count, float textSize) {
+        return AwtText.width(new String(text, start, count), textSize);
+    }
+
+    @Override
+    public void pushClip(float left, float top, float right, float bottom) {
+        String id = "c" + nextId++;
+        defs.append("<clipPath id=\"").append(id).append("\"><rect x=\"").append(num(left))
+                .append("\" y=\"").append(num(top)).append("\" width=\"").append(num(right - left))
+                .append("\" height=\"").append(num(bottom - top)).append("\"/></clipPath>\n");
+        body.append("<g clip-path=\"url(#").append(id).append(")\">\n");
+    }
+
+    @Override
+    public void popClip() {
+        body.append("</g>\n");
+    }
+
+    private void rect(float left, float top, float right, float bottom, float radius) {
+        body.append("<rect x=\"").append(num(left)).append("\" y=\"").append(num(top))
+                .append("\" width=\"").append(num(right - left)).append("\" height=\"").append(num(bottom - top))
+                .append("\" rx=\"").append(num(radius)).append('"');
+    }
+
+    private void stroke(int color, float strokeWidth) {
+        body.append(" stroke=\"").append(rgb(color)).append("\" stroke-width=\"").append(num(strokeWidth)).append('"');
+        int alpha = color >>> 24;
+        if (alpha != 0xFF) body.append(" stroke-opacity=\"").append(num(alpha / 255f)).append('"');
+    }
+
+    private void fill(int color) {
+        body.append(" fill=\"").append(rgb(color)).append('"');
+        int alpha = color >>> 24;
+        if (alpha != 0xFF) body.append(" fill-opacity=\"").append(num(alpha / 255f)).append('"');
+    }
+
+    private void escape(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<':
+                    body.append("&lt;");
+                    break;
+                case '>':
+                    body.append("&gt;");
+                    break;
+                case '&':
+                    body.append("&amp;");
+                    break;
+                default:
+                    body.append(c);
+            }
+        }
+    }
+
+    private static String rgb(int color) {
+        return String.format(Locale.ROOT, "#%06x", color & 0xFFFFFF);
+    }
+
+    /** Shortest text that round-trips {@code value}, without a trailing ".0". */
+    static String num(float value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e9f) return Integer.toString((int) value);
+        return Float.toString(value);
+    }
+}
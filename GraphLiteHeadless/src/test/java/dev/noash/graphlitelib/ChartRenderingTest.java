@@ -0,0 +1,77 @@
+package dev.noash.graphlitelib;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ChartRenderingTest {
+
+    @Test
+    public void svgUsesTheSameGeometryAsTheViews() {
+        LineChartSpec spec = new LineChartSpec()
+                .setSize(520, 600)
+                .setGraphLines(Collections.singletonList(new GraphLine(new float[]{0f, 50f, 100f}).setColor(0xFFFF0000)))
+                .setXLabels(Arrays.asList("a", "b", "c"));
+
+        String svg = ChartRendering.toSvg(spec);
+
+        assertTrue(svg, svg.startsWith("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"520\" height=\"600\""));
+        // plot spans x 80..480 and y 40..540, as in ChartLayoutTest
+        assertTrue(svg, svg.contains("<path d=\"M80 540 L280 290 L480 40\" fill=\"none\" stroke=\"#ff0000\" stroke-width=\"4\"/>"));
+        assertTrue(svg, svg.contains(">100</text>"));
+        assertTrue(svg, svg.contains(">b</text>"));
+    }
+
+    @Test
+    public void rasterBarsUseTheirColors() throws IOException {
+        BarChartSpec spec = new BarChartSpec()
+                .setSize(540, 520)
+                .setValues(FloatSeries.of(100f, 50f))
+                .setBarWidth(60f)
+                .setBarSpacing(40f)
+                .setBarColors(Collections.singletonList(0xFF00FF00));
+
+        BufferedImage image = ChartRendering.toImage(spec);
+        // first bar spans x 100..160, y 40..440 (see ChartLayoutTest)
+        assertEquals(0xFF00FF00, image.getRGB(130, 300));
+        assertEquals(0, image.getRGB(300, 100) >>> 24);
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ChartRendering.writePng(spec, png);
+        assertTrue(png.size() > 0);
+    }
+
+    @Test
+    public void batchOutputMatchesSequentialRendering() {
+        List<ChartSpec> specs = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            float[] values = new float[500];
+            for (int k = 0; k < values.length; k++) values[k] = (float) Math.sin(k / (10.0 + i)) * 100 + 150;
+            specs.add(i % 2 == 0
+                    ? new LineChartSpec().setGraphLines(Collections.singletonList(
+                            new GraphLine(values).setSmoothLine(i % 4 == 0).setDownsampleMode(DownsampleMode.LTTB)))
+                    : new BarChartSpec().setValues(FloatSeries.of(values[0], values[100], values[200])));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<String> parallel = ChartRendering.toSvg(specs, pool);
+            assertEquals(specs.size(), parallel.size());
+            for (int i = 0; i < specs.size(); i++) {
+                assertEquals(ChartRendering.toSvg(specs.get(i)), parallel.get(i));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
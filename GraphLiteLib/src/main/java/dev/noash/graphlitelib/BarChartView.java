@@ -1,45 +1,183 @@
 package dev.noash.graphlitelib;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.LinearGradient;
-import android.graphics.Paint;
-import android.graphics.RectF;
-import android.graphics.Shader;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.util.AttributeSet;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
 import android.view.View;
+import android.widget.OverScroller;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class BarChartView extends View {
 
-    private List<Float> values = new ArrayList<>();
+    private FloatSeries values = FloatSeries.empty();
     private List<String> labels = new ArrayList<>();
     private List<Integer> barColors = new ArrayList<>();
 
-    private int[] gradientColors = new int[]{
-            Color.parseColor("#3B82F6"),
-            Color.parseColor("#60A5FA")
-    };
+    private int[] gradientColors = BarChartPainter.DEFAULT_GRADIENT;
 
     private Float customBarWidth = null;
     private Float customBarSpacing = null;
 
+    private final BarChartPainter painter = new BarChartPainter();
+    private final CanvasRenderer canvasRenderer = new CanvasRenderer();
+
+    private final SnapshotPublisher snapshots = new SnapshotPublisher(this);
+    private final SnapshotPublisher.Capture layoutCapture = this::captureLayout;
+    private final StaticLayer staticLayer = new StaticLayer(this::paintStaticLayer);
+    private RenderSnapshot layerSnapshot;
+    private final MetricsRecorder metrics = new MetricsRecorder();
+
+    private LineChartView.AnimationType animationType = LineChartView.AnimationType.NONE;
+    private long animationDuration = 6000;
+    private float animationProgress = 1f;
+    private boolean animationPending = false;
+    private final ChartAnimator.Animation animation = new ChartAnimator.Animation(this::onAnimationFrame);
+    private final BarTransition transition = new BarTransition();
+    /** Snapshot the current transition was prepared against; a new layout prepares it again. */
+    private RenderSnapshot transitionSnapshot;
+    private long transitionKey;
+    private boolean layerTransition;
+    private int[] previousIndex = new int[0];
+    private final HashMap<String, Integer> labelIndex = new HashMap<>();
+    private ChartSnapshotCache snapshotCache;
+    private final Runnable snapshotReady = this::invalidate;
+    /** Content key of the cached picture, rebuilt only when the layout inputs or the style change. */
+    private ChartSnapshotCache.Key snapshotKey;
+    private long snapshotKeyVersion;
+    private long snapshotKeyStyle;
+    /** Token of the state this view last left in {@link ChartState}'s holder; 0 if none. */
+    private long retainedToken;
+    /** Values posted from other threads, swapped in at the start of the next frame. */
+    private final AtomicReference<PostedValues> postedValues = new AtomicReference<>();
+
+    private boolean scrollEnabled = false;
+    /** Pixels the bars are scrolled to the left while scrolling is enabled. */
+    private float scrollOffset;
+    /** Largest value, kept so scrolling does not rescan the data; NaN until needed. */
+    private float valuesMax = Float.NaN;
+    private OverScroller scroller;
+    private GestureDetector gestureDetector;
+
     public BarChartView(Context context) {
         super(context);
+        init();
     }
 
     public BarChartView(Context context, AttributeSet attrs) {
         super(context, attrs);
+        init();
+    }
+
+    private void init() {
+        scroller = new OverScroller(getContext());
+        gestureDetector = new GestureDetector(getContext(), new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(MotionEvent e) {
+                scroller.forceFinished(true);
+                return true;
+            }
+
+            @Override
+            public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+                if (getParent() != null) getParent().requestDisallowInterceptTouchEvent(true);
+                applyScroll(scrollOffset + distanceX);
+                return true;
+            }
+
+            @Override
+            public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
+                scroller.fling(Math.round(scrollOffset), 0, Math.round(-velocityX), 0,
+                        0, Math.round(maxScroll()), 0, 0);
+                postInvalidateOnAnimation();
+                return true;
+            }
+        });
     }
 
     public void setValues(List<Float> values) {
-        this.values = values;
+        setValues(FloatSeries.copyOf(values));
+    }
+
+    public void setValues(float[] values) {
+        setValues(values != null ? FloatSeries.of(values) : null);
+    }
+
+    public void setValues(FloatSeries values) {
+        applyValues(values);
+        invalidate();
+    }
+
+    private void applyValues(FloatSeries values) {
+        this.values = values != null ? values : FloatSeries.empty();
+        valuesMax = Float.NaN;
+        captureTransitionStart(null, this.values.size());
+        snapshots.markDirty();
+        animationPending = true;
+    }
+
+    /**
+     * Replaces the values from any thread. The array is copied; the chart swaps it in on its next frame, and when
+     * several arrive before that frame only the newest is drawn.
+     */
+    public void postValues(float[] values) {
+        postedValues.set(new PostedValues(null, FloatSeries.of(values.clone())));
+        postInvalidateOnAnimation();
+    }
+
+    /** Thread-safe {@link #updateValues(List, FloatSeries)}; copies both arguments like {@link #postValues}. */
+    public void postValues(List<String> labels, float[] values) {
+        postedValues.set(new PostedValues(new ArrayList<>(labels), FloatSeries.of(values.clone())));
+        postInvalidateOnAnimation();
+    }
+
+    public void updateValues(List<String> labels, float[] values) {
+        updateValues(labels, values != null ? FloatSeries.of(values) : null);
+    }
+
+    /**
+     * Replaces labels and values together, matching old and new bars by label. With an animation type set, only
+     * bars whose value or position changed animate, inserted bars grow and removed bars shrink away; the rest stay
+     * in the cached layer and only the columns the moving bars cover are invalidated.
+     */
+    public void updateValues(List<String> labels, FloatSeries values) {
+        applyUpdate(labels, values);
         invalidate();
     }
 
+    private void applyUpdate(List<String> labels, FloatSeries values) {
+        FloatSeries newValues = values != null ? values : FloatSeries.empty();
+        List<String> newLabels = labels != null ? labels : new ArrayList<>();
+        int count = newValues.size();
+        if (previousIndex.length < count) previousIndex = new int[count];
+        labelIndex.clear();
+        for (int i = this.labels.size() - 1; i >= 0; i--) {
+            labelIndex.put(this.labels.get(i), i);
+        }
+        for (int i = 0; i < count; i++) {
+            Integer previous = i < newLabels.size() ? labelIndex.remove(newLabels.get(i)) : null;
+            previousIndex[i] = previous != null ? previous : -1;
+        }
+        labelIndex.clear();
+        captureTransitionStart(previousIndex, count);
+
+        this.labels = newLabels;
+        this.values = newValues;
+        valuesMax = Float.NaN;
+        snapshots.markDirty();
+        animationPending = true;
+    }
+
     public void setLabels(List<String> labels) {
         this.labels = labels;
         invalidate();
@@ -47,17 +185,20 @@ public class BarChartView extends View {
 
     public void setBarWidth(float barWidthPx) {
         this.customBarWidth = barWidthPx;
+        snapshots.markDirty();
         invalidate();
     }
 
     public void setBarWidthDp(float barWidthDp) {
         float scale = getResources().getDisplayMetrics().density;
         this.customBarWidth = barWidthDp * scale;
+        snapshots.markDirty();
         invalidate();
     }
 
     public void setBarSpacing(float barSpacingPx) {
         this.customBarSpacing = barSpacingPx;
+        snapshots.markDirty();
         invalidate();
     }
 
@@ -66,14 +207,81 @@ public class BarChartView extends View {
         invalidate();
     }
 
-    public void adjustWidthToContent() {
-        if (values == null || values.isEmpty()) return;
+    /** Animates bars in when values are set; later updates morph from the bars currently on screen. */
+    public void setAnimationType(LineChartView.AnimationType type) {
+        this.animationType = type;
+        invalidate();
+    }
+
+    public void setAnimationDuration(long durationMillis) {
+        this.animationDuration = durationMillis;
+    }
 
-        float defaultSpacing = 40f;
-        float defaultBarWidth = 80f;
+    /**
+     * Draws this chart as one cached bitmap from {@code cache}, shared with other charts, for example the rows of a
+     * RecyclerView. Equal data, style and size reuse the same bitmap; new ones are rendered off the main thread.
+     * Animations are off while a cache is set. Pass null to draw normally again.
+     */
+    public void setSnapshotCache(ChartSnapshotCache cache) {
+        this.snapshotCache = cache;
+        invalidate();
+    }
+
+    /**
+     * Computes bar geometry on {@code executor} instead of inside {@code onDraw}.
+     * Pass null to lay out synchronously.
+     */
+    public void setLayoutExecutor(Executor executor) {
+        snapshots.setExecutor(executor);
+    }
+
+    /**
+     * Records per-frame draw time, bars submitted vs. drawn and cache hit rates. Off by default; while off, the
+     * bookkeeping is a few field checks per frame.
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        metrics.enabled = enabled;
+    }
+
+    /** Receives every frame's metrics; a non-null listener also enables metrics. */
+    public void setMetricsListener(ChartMetricsListener listener) {
+        metrics.listener = listener;
+        if (listener != null) metrics.enabled = true;
+    }
+
+    /** Frames whose {@code onDraw} takes longer than this count as over budget. Defaults to one 60 Hz frame. */
+    public void setFrameBudgetNanos(long budgetNanos) {
+        metrics.frameBudgetNanos = budgetNanos;
+    }
+
+    public ChartMetrics getMetrics() {
+        return new ChartMetrics(metrics);
+    }
+
+    public void resetMetrics() {
+        metrics.reset();
+    }
+
+    /**
+     * Keeps the view at its own size and scrolls the bars horizontally with drag and fling, instead of widening the
+     * view with {@link #adjustWidthToContent()} inside a {@code HorizontalScrollView}. Only bars and labels that
+     * intersect the plot are laid out and drawn, so frame cost does not grow with the number of bars. Bars use the
+     * set width and spacing, or 80 and 40 px.
+     */
+    public void setScrollEnabled(boolean enabled) {
+        if (scrollEnabled == enabled) return;
+        scrollEnabled = enabled;
+        scroller.forceFinished(true);
+        scrollOffset = 0f;
+        snapshots.markDirty();
+        invalidate();
+    }
+
+    public void adjustWidthToContent() {
+        if (values.isEmpty()) return;
 
-        float barWidth = (customBarWidth != null) ? customBarWidth : defaultBarWidth;
-        float barSpacing = (customBarSpacing != null) ? customBarSpacing : defaultSpacing;
+        float barWidth = barWidth();
+        float barSpacing = barSpacing();
 
         int count = values.size();
         int totalWidth = Math.round((barWidth + barSpacing) * count + 100);
@@ -82,97 +290,343 @@ public class BarChartView extends View {
         requestLayout();
     }
 
+    private float barWidth() {
+        return customBarWidth != null ? customBarWidth : BarChartLayout.DEFAULT_BAR_WIDTH;
+    }
+
+    private float barSpacing() {
+        return customBarSpacing != null ? customBarSpacing : BarChartLayout.DEFAULT_BAR_SPACING;
+    }
+
+    private float maxScroll() {
+        return BarChartLayout.maxScroll(getWidth(), values.size(), barWidth(), barSpacing());
+    }
+
+    private void applyScroll(float offset) {
+        offset = Math.max(0f, Math.min(offset, maxScroll()));
+        if (offset == scrollOffset) return;
+        scrollOffset = offset;
+        snapshots.markDirty();
+        invalidate();
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (!scrollEnabled) return super.onTouchEvent(event);
+        return gestureDetector.onTouchEvent(event) || super.onTouchEvent(event);
+    }
+
+    @Override
+    public void computeScroll() {
+        super.computeScroll();
+        if (scrollEnabled && scroller.computeScrollOffset()) {
+            applyScroll(scroller.getCurrX());
+            postInvalidateOnAnimation();
+        }
+    }
+
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
-        if (values == null || values.isEmpty()) return;
+        long frameStart = metrics.beginFrame();
+        drawChart(canvas);
+        metrics.endFrame(this, frameStart);
+    }
+
+    private void drawChart(Canvas canvas) {
+        PostedValues posted = postedValues.getAndSet(null);
+        if (posted != null) {
+            if (posted.labels != null) {
+                applyUpdate(posted.labels, posted.values);
+            } else {
+                applyValues(posted.values);
+            }
+        }
+        if (values.isEmpty()) return;
 
-        float barSpacingFromYAxis = 20f;
-        float width = getWidth();
-        float height = getHeight();
-        float paddingLeft = 80f;
-        float paddingRight = 40f;
-        float paddingBottom = 80f;
-        float paddingTop = 40f;
+        if (snapshotCache != null) {
+            animationPending = false;
+            drawCachedSnapshot(canvas);
+            return;
+        }
+
+        RenderSnapshot snapshot = snapshots.acquire(layoutCapture);
+        if (snapshot == null) return;
+        metrics.layout(snapshot);
+        metrics.points(values.size(), snapshot.barCount);
+
+        if (animationPending) {
+            animationPending = false;
+            startAnimation();
+        }
 
-        float usableWidth = width - paddingLeft - paddingRight;
-        float usableHeight = height - paddingTop - paddingBottom;
-        int barCount = values.size();
+        layerSnapshot = snapshot;
+        boolean animating = animation.isRunning();
+        if (animating && transitionSnapshot != snapshot) {
+            transitionSnapshot = snapshot;
+            transitionKey++;
+            if (!transition.prepare(snapshot.barRects, snapshot.firstBar, snapshot.barCount)) {
+                finishAnimation();
+                animating = false;
+            }
+        }
 
-        float max = 1f;
-        for (float v : values) {
-            if (v > max) max = v;
+        // Axes, labels and bars that keep their place come from the cached layer; moving bars are drawn over it.
+        layerTransition = animating;
+        metrics.layer(staticLayer.draw(canvas, getWidth(), getHeight(), snapshot,
+                styleKey() * 31 + (animating ? transitionKey : 0)));
+
+        if (animating) {
+            metrics.animationFrame();
+            transition.interpolate(snapshot.barRects, animationProgress);
+            ChartRenderer renderer = canvasRenderer.begin(canvas);
+            if (snapshot.zoomed) renderer.pushClip(snapshot.plotLeft, 0f, snapshot.plotRight, snapshot.height);
+            for (int i = 0; i < transition.count; i++) {
+                if (transition.moving[i]) {
+                    painter.paintBar(renderer, snapshot, transition.frame, i, transition.first + i, barColors,
+                            gradientColors);
+                }
+            }
+            for (int e = 0; e < transition.exitCount; e++) {
+                painter.paintBar(renderer, snapshot, transition.exitFrame, e, transition.exitIndex[e], barColors,
+                        gradientColors);
+            }
+            if (snapshot.zoomed) renderer.popClip();
         }
+    }
 
-        float barWidth = (customBarWidth != null) ? customBarWidth : usableWidth / (barCount * 1.5f);
-        float barSpacing = (customBarSpacing != null) ? customBarSpacing : barWidth * 0.5f;
+    /** Makes the next animation start from the bars on screen now; with none drawn yet, bars grow from the axis. */
+    private void captureTransitionStart(int[] previousIndex, int newCount) {
+        if (animation.isRunning()) {
+            transition.startFrom(transition.frame, transition.first, transition.count, previousIndex, newCount);
+        } else if (layerSnapshot != null) {
+            transition.startFrom(layerSnapshot.barRects, layerSnapshot.firstBar, layerSnapshot.barCount, previousIndex,
+                    newCount);
+        } else {
+            transition.startFrom(null, 0, 0, previousIndex, newCount);
+        }
+        transitionSnapshot = null;
+    }
 
-        Paint barPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        Paint labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        Paint axisPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        Paint yValuePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private void startAnimation() {
+        if (animationType == LineChartView.AnimationType.NONE) {
+            finishAnimation();
+            return;
+        }
+        animationProgress = 0f;
+        ChartAnimator.get().start(animation, animationDuration,
+                ChartAnimator.interpolatorFor(getContext(), animationType));
+    }
 
-        labelPaint.setTextAlign(Paint.Align.CENTER);
-        labelPaint.setTextSize(28f);
-        labelPaint.setColor(Color.DKGRAY);
+    private void finishAnimation() {
+        ChartAnimator.get().cancel(animation);
+        animationProgress = 1f;
+    }
 
-        yValuePaint.setTextAlign(Paint.Align.RIGHT);
-        yValuePaint.setTextSize(26f);
-        yValuePaint.setColor(Color.GRAY);
+    @SuppressWarnings("deprecation")
+    private void onAnimationFrame(float fraction) {
+        animationProgress = fraction;
+        if (transitionSnapshot != null && transition.dirtyLeft <= transition.dirtyRight) {
+            // Only the columns of moving bars change. Software rendering clips to them; hardware rendering
+            // redraws the view, but unchanged bars are replayed from the cached layer.
+            invalidate((int) Math.floor(transition.dirtyLeft) - 1, 0, (int) Math.ceil(transition.dirtyRight) + 1,
+                    getHeight());
+        } else {
+            invalidate();
+        }
+    }
 
-        axisPaint.setColor(Color.LTGRAY);
-        axisPaint.setStrokeWidth(3f);
+    private void paintStaticLayer(Canvas canvas) {
+        painter.paint(canvasRenderer.begin(canvas), layerSnapshot, layerTransition ? transition.moving : null, labels,
+                barColors, gradientColors);
+    }
 
-        LinearGradient gradient = new LinearGradient(0, paddingTop, 0, height - paddingBottom,
-                gradientColors, null, Shader.TileMode.CLAMP);
-        barPaint.setShader(gradient);
+    /** Blits the cached picture of this chart, or has it rendered in the background and redraws once it is ready. */
+    private void drawCachedSnapshot(Canvas canvas) {
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0) return;
+        long style = styleKey();
+        ChartSnapshotCache.Key key = snapshotKey;
+        if (key == null || key.width != width || key.height != height
+                || snapshotKeyVersion != snapshots.inputVersion() || snapshotKeyStyle != style) {
+            key = snapshotKey = snapshotKey(width, height);
+            snapshotKeyVersion = snapshots.inputVersion();
+            snapshotKeyStyle = style;
+        }
+        Bitmap bitmap = snapshotCache.get(key);
+        if (bitmap != null) {
+            canvas.drawBitmap(bitmap, 0f, 0f, null);
+            return;
+        }
 
-        for (int i = 0; i < barCount; i++) {
-            float val = values.get(i);
-            float barHeight = (val / max) * usableHeight;
+        SnapshotPublisher.Layout layout = captureLayout(0);
+        List<String> barLabels = new ArrayList<>(labels);
+        List<Integer> colors = new ArrayList<>(barColors);
+        int[] gradient = gradientColors;
+        snapshotCache.request(key, target -> new BarChartPainter().paint(
+                new CanvasRenderer().begin(target), layout.compute(), barLabels, colors, gradient), snapshotReady);
+    }
 
-            float left = paddingLeft + barSpacingFromYAxis + i * (barWidth + barSpacing);
-            float top = height - paddingBottom - barHeight;
-            float right = left + barWidth;
-            float bottom = height - paddingBottom;
+    /** Everything the chart draws, by content, so rebinding equal data finds the cached picture. */
+    private ChartSnapshotCache.Key snapshotKey(int width, int height) {
+        ChartSnapshotCache.Key key = new ChartSnapshotCache.Key(width, height);
+        key.mix(values);
+        key.mix(labels.hashCode());
+        key.mix(barColors.hashCode());
+        key.mix(Arrays.hashCode(gradientColors));
+        key.mix(customBarWidth != null ? Float.floatToIntBits(customBarWidth) : 1);
+        key.mix(customBarSpacing != null ? Float.floatToIntBits(customBarSpacing) : 1);
+        key.mix(scrollEnabled ? Float.floatToIntBits(scrollOffset) : 1);
+        return key;
+    }
 
-            Paint customPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-            if (i < barColors.size()) {
-                customPaint.setColor(barColors.get(i));
-            } else {
-                customPaint.setShader(new LinearGradient(0, paddingTop, 0, height - paddingBottom,
-                        gradientColors, null, Shader.TileMode.CLAMP));
-            }
+    /** Changes whenever labels or colors change without a new layout. */
+    private long styleKey() {
+        long key = System.identityHashCode(labels);
+        key = key * 31 + labels.size();
+        key = key * 31 + System.identityHashCode(gradientColors);
+        for (int i = 0; i < barColors.size(); i++) {
+            key = key * 31 + barColors.get(i);
+        }
+        return key;
+    }
+
+    private SnapshotPublisher.Layout captureLayout(long sequence) {
+        int width = getWidth();
+        int height = getHeight();
+        FloatSeries data = values.snapshot();
+        if (scrollEnabled) {
+            if (Float.isNaN(valuesMax)) valuesMax = data.max();
+            float max = valuesMax;
+            float barWidth = barWidth();
+            float barSpacing = barSpacing();
+            float offset = scrollOffset = Math.min(scrollOffset, maxScroll());
+            return () -> BarChartLayout.layoutWindow(sequence, width, height, data, max, barWidth, barSpacing,
+                    offset);
+        }
+        float barWidth = customBarWidth != null ? customBarWidth : Float.NaN;
+        float barSpacing = customBarSpacing != null ? customBarSpacing : Float.NaN;
+        return () -> BarChartLayout.layout(sequence, width, height, data, barWidth, barSpacing);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        staticLayer.release();
+        layerSnapshot = null;
+        finishAnimation();
+        if (ChartState.isFinishing(getContext())) releaseRetainedState();
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * Saves values, labels, colors and the scroll position so a recreated chart draws its first frame as it was,
+     * without an entrance animation. Like any view state, it needs the view to have an id.
+     */
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState state = new SavedState(super.onSaveInstanceState());
+        releaseRetainedState();
+        state.values = values;
+        state.labels = labels;
+        state.barColors = barColors;
+        state.scrollOffset = scrollOffset;
+        if (values.size() * 4L + ChartState.labelBytes(labels) > ChartState.MAX_PARCEL_BYTES) {
+            state.token = retainedToken = ChartState.retain(state);
+        }
+        return state;
+    }
+
+    private void releaseRetainedState() {
+        if (retainedToken != 0) ChartState.take(retainedToken);
+        retainedToken = 0;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState saved = (SavedState) state;
+        super.onRestoreInstanceState(saved.getSuperState());
+        SavedState data = saved.token != 0 ? (SavedState) ChartState.take(saved.token) : saved;
+        if (data == null) return;
+        applyValues(data.values);
+        valuesMax = data.values.max();
+        labels = data.labels;
+        barColors = data.barColors;
+        scrollOffset = data.scrollOffset;
+        animationPending = false;
+        finishAnimation();
+        invalidate();
+    }
+
+    public static final class SavedState extends BaseSavedState {
+        FloatSeries values;
+        List<String> labels;
+        List<Integer> barColors;
+        /** Set instead of parceling values and labels when they are too large; see {@link ChartState}. */
+        long token;
+        float scrollOffset;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
 
-            canvas.drawRoundRect(new RectF(left, top, right, bottom), 20f, 20f, customPaint);
+        private SavedState(Parcel in) {
+            super(in);
+            token = in.readLong();
+            if (token == 0) {
+                values = ChartState.readSeries(in);
+                labels = in.createStringArrayList();
+                int[] colors = in.createIntArray();
+                barColors = new ArrayList<>(colors.length);
+                for (int color : colors) barColors.add(color);
+            }
+            scrollOffset = in.readFloat();
+        }
 
-            if (i < labels.size()) {
-                canvas.drawText(labels.get(i), left + barWidth / 2, height - 20f, labelPaint);
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeLong(token);
+            if (token == 0) {
+                ChartState.writeSeries(out, values);
+                out.writeStringList(labels);
+                int[] colors = new int[barColors.size()];
+                for (int i = 0; i < colors.length; i++) colors[i] = barColors.get(i);
+                out.writeIntArray(colors);
             }
+            out.writeFloat(scrollOffset);
         }
 
-        canvas.drawLine(
-                paddingLeft + barSpacingFromYAxis,
-                height - paddingBottom,
-                width - paddingRight,
-                height - paddingBottom,
-                axisPaint
-        );
-
-        canvas.drawLine(
-                paddingLeft,
-                paddingTop,
-                paddingLeft,
-                height - paddingBottom,
-                axisPaint
-        );
-
-        int ySteps = 5;
-        for (int i = 0; i <= ySteps; i++) {
-            float fraction = (float) i / ySteps;
-            float value = max * (1f - fraction);
-            float y = paddingTop + usableHeight * fraction;
-            canvas.drawText(String.format("%.0f", value), paddingLeft - 10f, y + 10f, yValuePaint);
+        public static final Creator<SavedState> CREATOR = new Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        snapshots.markDirty();
+    }
+
+    private static final class PostedValues {
+        final List<String> labels;
+        final FloatSeries values;
+
+        PostedValues(List<String> labels, FloatSeries values) {
+            this.labels = labels;
+            this.values = values;
         }
     }
 }
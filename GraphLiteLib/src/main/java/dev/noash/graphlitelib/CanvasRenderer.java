@@ -0,0 +1,182 @@
+package dev.noash.graphlitelib;
+
+import android.graphics.Canvas;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.graphics.Shader;
+
+/**
+ * {@link ChartRenderer} over an Android {@link Canvas}. Reuses its paints, path, vertex arrays and gradient, so
+ * repainting does not allocate once the gradient bounds are stable.
+ */
+final class CanvasRenderer implements ChartRenderer {
+    /** Segments per {@code drawLines} call; long lines are drawn in chunks of this many from one reused array. */
+    static final int SEGMENTS_PER_BATCH = 1024;
+
+    private final Paint strokePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint fillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint gradientPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint segmentPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint pointPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Path path = new Path();
+    private final RectF rect = new RectF();
+    private float[] segments = new float[0];
+    private float[] lineBatch;
+
+    private LinearGradient gradient;
+    private float gradientTop;
+    private float gradientBottom;
+    private int[] gradientColors;
+
+    private Canvas canvas;
+    /** Paths built by {@link #drawPolyline}; lets charts report rebuilds in their metrics. */
+    int pathBuilds;
+    /**
+     * Strokes straight polylines as {@code drawLines} batches instead of building a Path. Segments get round caps,
+     * which close the joins between them.
+     */
+    boolean segmentLines;
+
+    CanvasRenderer() {
+        strokePaint.setStyle(Paint.Style.STROKE);
+        fillPaint.setStyle(Paint.Style.FILL);
+        gradientPaint.setStyle(Paint.Style.FILL);
+        segmentPaint.setStyle(Paint.Style.STROKE);
+        segmentPaint.setStrokeCap(Paint.Cap.ROUND);
+        // drawPoints with a round cap fills a circle whose diameter is the stroke width.
+        pointPaint.setStyle(Paint.Style.STROKE);
+        pointPaint.setStrokeCap(Paint.Cap.ROUND);
+    }
+
+    CanvasRenderer begin(Canvas canvas) {
+        this.canvas = canvas;
+        return this;
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2, int color, float strokeWidth) {
+        strokePaint.setColor(color);
+        strokePaint.setStrokeWidth(strokeWidth);
+        canvas.drawLine(x1, y1, x2, y2, strokePaint);
+    }
+
+    @Override
+    public void drawPolyline(float[] vertices, int count, boolean smooth, int color, float strokeWidth) {
+        if (segmentLines && !smooth) {
+            drawSegments(vertices, count, color, strokeWidth);
+            return;
+        }
+        path.rewind();
+        if (smooth) {
+            int capacity = LineSmoother.capacityFor(count);
+            if (segments.length < capacity) segments = new float[capacity];
+            int n = LineSmoother.quadSegments(vertices, count, segments);
+            if (n > 0) path.moveTo(segments[0], segments[1]);
+            for (int i = 2; i < n; i += 4) {
+                path.quadTo(segments[i], segments[i + 1], segments[i + 2], segments[i + 3]);
+            }
+        } else if (count > 0) {
+            path.moveTo(vertices[0], vertices[1]);
+            for (int k = 1; k < count; k++) {
+                path.lineTo(vertices[k * 2], vertices[k * 2 + 1]);
+            }
+        }
+        pathBuilds++;
+        strokePaint.setColor(color);
+        strokePaint.setStrokeWidth(strokeWidth);
+        canvas.drawPath(path, strokePaint);
+    }
+
+    private void drawSegments(float[] vertices, int count, int color, float strokeWidth) {
+        if (lineBatch == null) lineBatch = new float[SEGMENTS_PER_BATCH * 4];
+        segmentPaint.setColor(color);
+        segmentPaint.setStrokeWidth(strokeWidth);
+        int n = 0;
+        for (int k = 1; k < count; k++) {
+            lineBatch[n++] = vertices[k * 2 - 2];
+            lineBatch[n++] = vertices[k * 2 - 1];
+            lineBatch[n++] = vertices[k * 2];
+            lineBatch[n++] = vertices[k * 2 + 1];
+            if (n == lineBatch.length) {
+                canvas.drawLines(lineBatch, 0, n, segmentPaint);
+                n = 0;
+            }
+        }
+        if (n > 0) canvas.drawLines(lineBatch, 0, n, segmentPaint);
+    }
+
+    @Override
+    public void drawPoints(float[] vertices, int count, float radius, int color) {
+        if (count <= 0) return;
+        pointPaint.setColor(color);
+        pointPaint.setStrokeWidth(radius * 2f);
+        canvas.drawPoints(vertices, 0, count * 2, pointPaint);
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, int color) {
+        fillPaint.setColor(color);
+        canvas.drawCircle(cx, cy, radius, fillPaint);
+    }
+
+    @Override
+    public void drawRoundRect(float left, float top, float right, float bottom, float radius, int color) {
+        fillPaint.setColor(color);
+        rect.set(left, top, right, bottom);
+        canvas.drawRoundRect(rect, radius, radius, fillPaint);
+    }
+
+    @Override
+    public void drawGradientRoundRect(float left, float top, float right, float bottom, float radius,
+                                      int[] colors, float gradientTop, float gradientBottom) {
+        if (gradient == null || gradientTop != this.gradientTop || gradientBottom != this.gradientBottom
+                || colors != gradientColors) {
+            gradient = new LinearGradient(0, gradientTop, 0, gradientBottom, colors, null, Shader.TileMode.CLAMP);
+            gradientPaint.setShader(gradient);
+            this.gradientTop = gradientTop;
+            this.gradientBottom = gradientBottom;
+            gradientColors = colors;
+        }
+        rect.set(left, top, right, bottom);
+        canvas.drawRoundRect(rect, radius, radius, gradientPaint);
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, float textSize, int color, TextAlign align) {
+        canvas.drawText(text, x, y, textPaint(textSize, color, align));
+    }
+
+    @Override
+    public void drawText(char[] text, int start, int count, float x, float y, float textSize, int color,
+                         TextAlign align) {
+        canvas.drawText(text, start, count, x, y, textPaint(textSize, color, align));
+    }
+
+    @Override
+    public float measureText(char[] text, int start, int count, float textSize) {
+        textPaint.setTextSize(textSize);
+        return textPaint.measureText(text, start, count);
+    }
+
+    @Override
+    public void pushClip(float left, float top, float right, float bottom) {
+        canvas.save();
+        canvas.clipRect(left, top, right, bottom);
+    }
+
+    @Override
+    public void popClip() {
+        canvas.restore();
+    }
+
+    private Paint textPaint(float textSize, int color, TextAlign align) {
+        textPaint.setTextSize(textSize);
+        textPaint.setColor(color);
+        textPaint.setTextAlign(align == TextAlign.LEFT ? Paint.Align.LEFT
+                : align == TextAlign.RIGHT ? Paint.Align.RIGHT : Paint.Align.CENTER);
+        return textPaint;
+    }
+}
@@ -0,0 +1,119 @@
+package dev.noash.graphlitelib;
+
+import android.animation.TimeInterpolator;
+import android.content.Context;
+import android.view.Choreographer;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.AnimationUtils;
+import android.view.animation.LinearInterpolator;
+import android.view.animation.OvershootInterpolator;
+
+import java.util.ArrayList;
+
+/**
+ * Runs every chart animation on a thread from a single {@link Choreographer} frame callback, so a screen of
+ * animating charts costs one tick per vsync instead of one animator each. Each chart owns one {@link Animation};
+ * starting it again while it runs restarts it in place rather than stacking a second one.
+ */
+final class ChartAnimator implements Choreographer.FrameCallback {
+
+    interface Target {
+        /** Called once per frame with the interpolated fraction; the last call passes exactly 1. */
+        void onAnimationFrame(float fraction);
+    }
+
+    static final class Animation {
+        private final Target target;
+        private TimeInterpolator interpolator;
+        private long durationNanos;
+        private long startNanos;
+        private boolean running;
+
+        Animation(Target target) {
+            this.target = target;
+        }
+
+        boolean isRunning() {
+            return running;
+        }
+    }
+
+    private static final ThreadLocal<ChartAnimator> INSTANCE = new ThreadLocal<ChartAnimator>() {
+        @Override
+        protected ChartAnimator initialValue() {
+            return new ChartAnimator();
+        }
+    };
+
+    private final ArrayList<Animation> active = new ArrayList<>();
+    private boolean posted;
+
+    private ChartAnimator() {
+    }
+
+    /** The animator of the calling thread, which must have a Looper. */
+    static ChartAnimator get() {
+        return INSTANCE.get();
+    }
+
+    static TimeInterpolator interpolatorFor(Context context, LineChartView.AnimationType type) {
+        switch (type) {
+            case WAVE:
+                return new OvershootInterpolator();
+            case FADE_IN:
+                return new AccelerateDecelerateInterpolator();
+            case EASE_IN_OUT:
+                return AnimationUtils.loadInterpolator(context, android.R.interpolator.fast_out_slow_in);
+            default:
+                return new LinearInterpolator();
+        }
+    }
+
+    /** Starts {@code animation}, or restarts it from fraction 0 if it is already running. */
+    void start(Animation animation, long durationMillis, TimeInterpolator interpolator) {
+        animation.interpolator = interpolator;
+        animation.durationNanos = Math.max(1L, durationMillis * 1_000_000L);
+        animation.startNanos = -1L;
+        if (!animation.running) {
+            animation.running = true;
+            active.add(animation);
+        }
+        if (!posted) {
+            posted = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /** Stops {@code animation} without a final frame. */
+    void cancel(Animation animation) {
+        if (!animation.running) return;
+        animation.running = false;
+        active.remove(animation);
+    }
+
+    int activeCount() {
+        return active.size();
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        posted = false;
+        for (int i = 0; i < active.size(); ) {
+            Animation animation = active.get(i);
+            if (animation.startNanos < 0) animation.startNanos = frameTimeNanos;
+            float linear = Math.min(1f, (frameTimeNanos - animation.startNanos) / (float) animation.durationNanos);
+            boolean done = linear >= 1f;
+            if (done) {
+                animation.running = false;
+                active.remove(i);
+            } else {
+                i++;
+            }
+            animation.target.onAnimationFrame(done ? 1f : animation.interpolator.getInterpolation(linear));
+        }
+        if (!active.isEmpty() && !posted) {
+            posted = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+}
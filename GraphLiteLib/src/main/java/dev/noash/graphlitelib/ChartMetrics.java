@@ -0,0 +1,110 @@
+package dev.noash.graphlitelib;
+
+/**
+ * Aggregated rendering metrics of one chart since metrics were enabled or last reset. Immutable; obtain a fresh
+ * one from {@code getMetrics()}.
+ */
+public final class ChartMetrics {
+    private final long frames;
+    private final long animationFrames;
+    private final long framesOverBudget;
+    private final long totalDrawNanos;
+    private final long maxDrawNanos;
+    private final long pointsSubmitted;
+    private final long pointsDrawn;
+    private final long pathRebuilds;
+    private final long layoutHits;
+    private final long layoutMisses;
+    private final long layerHits;
+    private final long layerMisses;
+
+    ChartMetrics(MetricsRecorder recorder) {
+        frames = recorder.frames;
+        animationFrames = recorder.animationFrames;
+        framesOverBudget = recorder.framesOverBudget;
+        totalDrawNanos = recorder.totalDrawNanos;
+        maxDrawNanos = recorder.maxDrawNanos;
+        pointsSubmitted = recorder.pointsSubmitted;
+        pointsDrawn = recorder.pointsDrawn;
+        pathRebuilds = recorder.pathRebuilds;
+        layoutHits = recorder.layoutHits;
+        layoutMisses = recorder.layoutMisses;
+        layerHits = recorder.layerHits;
+        layerMisses = recorder.layerMisses;
+    }
+
+    public long getFrameCount() {
+        return frames;
+    }
+
+    /** Frames drawn while an entrance or transition animation was running. */
+    public long getAnimationFrameCount() {
+        return animationFrames;
+    }
+
+    public long getFramesOverBudget() {
+        return framesOverBudget;
+    }
+
+    public long getMaxDrawNanos() {
+        return maxDrawNanos;
+    }
+
+    public long getAverageDrawNanos() {
+        return frames == 0 ? 0 : totalDrawNanos / frames;
+    }
+
+    /** Sum over all frames of the samples in the chart's data. */
+    public long getPointsSubmitted() {
+        return pointsSubmitted;
+    }
+
+    /** Sum over all frames of the samples left after culling and downsampling. */
+    public long getPointsDrawn() {
+        return pointsDrawn;
+    }
+
+    /** Times a line's {@code Path} was rebuilt from new vertices. */
+    public long getPathRebuilds() {
+        return pathRebuilds;
+    }
+
+    /** Frames that reused the previous layout pass. */
+    public long getLayoutCacheHits() {
+        return layoutHits;
+    }
+
+    public long getLayoutCacheMisses() {
+        return layoutMisses;
+    }
+
+    /** Frames that composited the cached axes/labels/series layer without repainting it. */
+    public long getLayerCacheHits() {
+        return layerHits;
+    }
+
+    public long getLayerCacheMisses() {
+        return layerMisses;
+    }
+
+    /** Fraction of frames that reused the static layer, or 0 before the first frame. */
+    public float getLayerCacheHitRate() {
+        long total = layerHits + layerMisses;
+        return total == 0 ? 0f : (float) layerHits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "ChartMetrics{frames=" + frames
+                + ", animationFrames=" + animationFrames
+                + ", overBudget=" + framesOverBudget
+                + ", avgDrawUs=" + getAverageDrawNanos() / 1000
+                + ", maxDrawUs=" + maxDrawNanos / 1000
+                + ", pointsSubmitted=" + pointsSubmitted
+                + ", pointsDrawn=" + pointsDrawn
+                + ", pathRebuilds=" + pathRebuilds
+                + ", layout=" + layoutHits + "/" + (layoutHits + layoutMisses)
+                + ", layer=" + layerHits + "/" + (layerHits + layerMisses)
+                + '}';
+    }
+}
@@ -0,0 +1,18 @@
+package dev.noash.graphlitelib;
+
+import android.view.View;
+
+/**
+ * Receives one callback per drawn frame of a chart with metrics enabled. Called on the UI thread right after
+ * {@code onDraw}; keep it cheap and do not allocate if it runs in production.
+ */
+public interface ChartMetricsListener {
+
+    /**
+     * @param drawNanos       time spent in {@code onDraw}
+     * @param pointsSubmitted samples in the chart's data
+     * @param pointsDrawn     samples left after viewport culling and downsampling
+     * @param overBudget      true when {@code drawNanos} exceeded the chart's frame budget
+     */
+    void onFrame(View chart, long drawNanos, int pointsSubmitted, int pointsDrawn, boolean overBudget);
+}
@@ -0,0 +1,167 @@
+package dev.noash.graphlitelib;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+import android.util.LruCache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Size-bounded LRU cache of rendered charts, meant to be shared by the many small charts of a list, such as sparklines
+ * in RecyclerView rows. A chart with a cache set draws its whole picture as a bitmap keyed by its data, style and
+ * size: a bind that matches an earlier one blits the bitmap, and a miss is rendered on a background thread and drawn
+ * once ready. Charts skip animations and selection while a cache is set. Use from the main thread.
+ */
+public final class ChartSnapshotCache {
+    private static final String TAG = "ChartSnapshotCache";
+
+    interface Renderer {
+        /** Draws the chart onto {@code canvas}; runs on the cache's executor. */
+        void render(Canvas canvas);
+    }
+
+    /**
+     * Identity of a rendered chart: its size, how many samples went in and two independent 64-bit hashes of
+     * everything drawn, so different charts sharing a cache do not pick up each other's bitmaps.
+     */
+    static final class Key {
+        final int width;
+        final int height;
+        private long hash;
+        private long check = 0xCBF29CE484222325L;
+        private long samples;
+
+        Key(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        Key mix(long value) {
+            hash = hash * 31 + value;
+            check = Long.rotateLeft((check ^ value) * 0x9E3779B97F4A7C15L, 31);
+            return this;
+        }
+
+        Key mix(FloatSeries values) {
+            int size = values.size();
+            samples += size;
+            mix(size);
+            for (int i = 0; i < size; i++) {
+                mix(Float.floatToIntBits(values.get(i)));
+            }
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return width == other.width && height == other.height && samples == other.samples
+                    && hash == other.hash && check == other.check;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hash);
+        }
+    }
+
+    private static final int MAX_FAILURES = 64;
+
+    private final LruCache<Key, Bitmap> bitmaps;
+    /** Keys whose rendering threw; they are not rendered again until {@link #clear()}. */
+    private final LruCache<Key, Boolean> failures = new LruCache<>(MAX_FAILURES);
+    private final Executor executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    /** Keys being rendered, with what to run when each is ready. */
+    private final HashMap<Key, ArrayList<Runnable>> pending = new HashMap<>();
+
+    /** Renders misses on one background thread owned by this cache. */
+    public ChartSnapshotCache(int maxBytes) {
+        this(maxBytes, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, "GraphLite snapshots");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    public ChartSnapshotCache(int maxBytes, Executor executor) {
+        bitmaps = new LruCache<Key, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Key key, Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+        };
+        this.executor = executor;
+    }
+
+    /** Bytes held by cached bitmaps. */
+    public int size() {
+        return bitmaps.size();
+    }
+
+    public void clear() {
+        bitmaps.evictAll();
+        failures.evictAll();
+    }
+
+    Bitmap get(Key key) {
+        return bitmaps.get(key);
+    }
+
+    int hitCount() {
+        return bitmaps.hitCount();
+    }
+
+    /**
+     * Renders {@code renderer} into a new bitmap on the executor and caches it under {@code key}, then runs
+     * {@code onReady} on the main thread. Requests for a key already rendering only add their callback. If rendering
+     * throws, the key is remembered as failed and neither rendered again nor reported ready.
+     */
+    void request(Key key, Renderer renderer, Runnable onReady) {
+        if (failures.get(key) != null) return;
+        ArrayList<Runnable> callbacks = pending.get(key);
+        if (callbacks != null) {
+            if (!callbacks.contains(onReady)) callbacks.add(onReady);
+            return;
+        }
+        callbacks = new ArrayList<>(1);
+        callbacks.add(onReady);
+        pending.put(key, callbacks);
+        executor.execute(() -> {
+            Bitmap bitmap;
+            try {
+                bitmap = Bitmap.createBitmap(key.width, key.height, Bitmap.Config.ARGB_8888);
+                renderer.render(new Canvas(bitmap));
+            } catch (RuntimeException | OutOfMemoryError e) {
+                Log.w(TAG, "Failed to render chart snapshot", e);
+                bitmap = null;
+            }
+            Bitmap rendered = bitmap;
+            mainHandler.post(() -> finish(key, rendered));
+        });
+    }
+
+    private void finish(Key key, Bitmap bitmap) {
+        ArrayList<Runnable> callbacks = pending.remove(key);
+        if (bitmap == null) {
+            failures.put(key, Boolean.TRUE);
+            return;
+        }
+        bitmaps.put(key, bitmap);
+        if (callbacks == null) return;
+        for (int i = 0; i < callbacks.size(); i++) {
+            callbacks.get(i).run();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package dev.noash.graphlitelib;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.os.Parcel;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Helpers for the views' saved state. Series go into the parcel as primitive arrays together with their min/max, so
+ * a restored chart draws its first frame without rescanning. State over {@link #MAX_PARCEL_BYTES} stays in an
+ * in-memory holder instead and only a token is parceled: that survives configuration changes, not process death.
+ * Held states are soft references, released when the view is detached from a finishing activity or saves again, so
+ * states that are never restored cannot pin their data.
+ */
+final class ChartState {
+    /** Saved state of all views shares a binder transaction of about 1 MB; keep each chart well below it. */
+    static final int MAX_PARCEL_BYTES = 128 * 1024;
+    private static final int MAX_RETAINED = 16;
+
+    private static final LinkedHashMap<Long, SoftReference<Object>> retained = new LinkedHashMap<>();
+    private static long nextToken = 1;
+
+    private ChartState() {
+    }
+
+    /**
+     * Keeps {@code state} in memory until {@link #take}, unless memory runs low; the oldest entries go when too many
+     * are never taken.
+     */
+    static synchronized long retain(Object state) {
+        long token = nextToken++;
+        retained.put(token, new SoftReference<>(state));
+        Iterator<SoftReference<Object>> oldest = retained.values().iterator();
+        while (oldest.hasNext()) {
+            if (oldest.next().get() == null || retained.size() > MAX_RETAINED) oldest.remove();
+        }
+        return token;
+    }
+
+    /**
+     * The state kept under {@code token}, or null if it is gone, for example after the process was restarted. Also
+     * how a view releases a state it no longer needs.
+     */
+    static synchronized Object take(long token) {
+        SoftReference<Object> state = retained.remove(token);
+        return state != null ? state.get() : null;
+    }
+
+    /** True when the activity hosting {@code context} is finishing, so its views' saved states will not be used. */
+    static boolean isFinishing(Context context) {
+        while (context instanceof ContextWrapper) {
+            if (context instanceof Activity) return ((Activity) context).isFinishing();
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        return false;
+    }
+
+    /** Approximate parcel size of {@code lines}; paged lines cannot be parceled at all. */
+    static long parcelBytes(List<GraphLine> lines, List<String> labels) {
+        long bytes = 0;
+        for (int l = 0; l < lines.size(); l++) {
+            GraphLine line = lines.get(l);
+            if (line.getValues() instanceof PagedSeries) return Long.MAX_VALUE;
+            bytes += 64 + line.getValues().size() * 4L;
+            if (line.getTimestamps() != null) bytes += line.getTimestamps().size() * 8L;
+        }
+        return bytes + labelBytes(labels);
+    }
+
+    static long labelBytes(List<String> labels) {
+        long bytes = 0;
+        for (int i = 0; i < labels.size(); i++) {
+            String label = labels.get(i);
+            bytes += 8 + (label != null ? label.length() * 2L : 0);
+        }
+        return bytes;
+    }
+
+    static void writeLines(Parcel out, List<GraphLine> lines) {
+        out.writeInt(lines.size());
+        for (int l = 0; l < lines.size(); l++) {
+            GraphLine line = lines.get(l);
+            FloatSeries values = line.getValues();
+            writeSeries(out, values);
+            out.writeInt(values instanceof RingFloatSeries ? ((RingFloatSeries) values).capacity() : 0);
+            Timestamps times = line.getTimestamps();
+            if (times != null) {
+                long[] array = new long[times.size()];
+                for (int i = 0; i < array.length; i++) array[i] = times.get(i);
+                out.writeLongArray(array);
+            } else {
+                out.writeLongArray(null);
+            }
+            out.writeInt(line.color);
+            out.writeFloat(line.lineWidth);
+            out.writeFloat(line.pointRadius);
+            out.writeInt((line.showPoints ? 1 : 0) | (line.smoothLine ? 2 : 0));
+            out.writeString(line.title);
+            out.writeInt(line.downsampleMode.ordinal());
+        }
+    }
+
+    static List<GraphLine> readLines(Parcel in) {
+        int count = in.readInt();
+        List<GraphLine> lines = new ArrayList<>(count);
+        for (int l = 0; l < count; l++) {
+            FloatSeries values = readSeries(in);
+            int capacity = in.readInt();
+            GraphLine line = capacity > 0
+                    ? GraphLine.streaming(capacity).appendBatch(values.toArray())
+                    : new GraphLine(values);
+            long[] times = in.createLongArray();
+            if (times != null) line.setTimestamps(times);
+            line.color = in.readInt();
+            line.lineWidth = in.readFloat();
+            line.pointRadius = in.readFloat();
+            int flags = in.readInt();
+            line.showPoints = (flags & 1) != 0;
+            line.smoothLine = (flags & 2) != 0;
+            line.title = in.readString();
+            line.downsampleMode = DownsampleMode.values()[in.readInt()];
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    static void writeSeries(Parcel out, FloatSeries values) {
+        float[] array = values.toArray();
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (float v : array) {
+            if (v < min) min = v;
+            if (v > max) max = v;
+        }
+        out.writeFloatArray(array);
+        out.writeFloat(min);
+        out.writeFloat(max);
+    }
+
+    static FloatSeries readSeries(Parcel in) {
+        float[] values = in.createFloatArray();
+        return new SavedSeries(values, in.readFloat(), in.readFloat());
+    }
+
+    /** Restored samples; owned by the chart, so their saved min and max stay valid. */
+    static final class SavedSeries extends FloatSeries {
+        private final float[] values;
+        private final float min;
+        private final float max;
+
+        SavedSeries(float[] values, float min, float max) {
+            this.values = values;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        @Override
+        public float get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public float min() {
+            return min;
+        }
+
+        @Override
+        public float max() {
+            return max;
+        }
+
+        @Override
+        public void copyTo(int from, float[] dst, int dstOffset, int count) {
+            System.arraycopy(values, from, dst, dstOffset, count);
+        }
+    }
+}
@@ -1,44 +1,99 @@
 package dev.noash.graphlitelib;
 
-import android.animation.ValueAnimator;
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.RectF;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.util.AttributeSet;
+import android.view.GestureDetector;
 import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
 import android.view.View;
-import android.graphics.Path;
-import android.view.animation.AccelerateDecelerateInterpolator;
-import android.view.animation.AnimationUtils;
-import android.view.animation.OvershootInterpolator;
+import android.widget.OverScroller;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public class LineChartView extends View {
     public enum AnimationType {
         NONE, EASE_IN_OUT, FADE_IN, WAVE
     }
 
+    /** How straight (non-smooth) lines are stroked; smooth lines always use a Path. */
+    public enum LineRenderMode {
+        /** One Path per line, with mitered joins. */
+        PATH,
+        /**
+         * Segment endpoints packed into a reused array and drawn with {@code Canvas.drawLines} in batches, which is
+         * much cheaper for lines with thousands of points on the hardware renderer. Round caps close the joins.
+         */
+        SEGMENTS
+    }
+
     private List<GraphLine> graphLines = new ArrayList<>();
-    private List<Float> referenceData = new ArrayList<>();
     private List<String> xLabels = new ArrayList<>();
     private int selectedIndex = -1;
+    private int selectedLine = -1;
+    private boolean scrubbing = false;
 
     private boolean showAxis = true;
     private int yLabelCount = 5;
 
     private float animationProgress = 1f;
-    private boolean animationStarted = false;
-    private boolean shouldAnimateNextDraw = false;
+    private boolean animationPending = false;
+    private final ChartAnimator.Animation animation = new ChartAnimator.Animation(this::onAnimationFrame);
     private long animationDuration = 6000;
     private AnimationType animationType = AnimationType.NONE;
 
     private static final float TOUCH_TOLERANCE_X = 40f;
-
-    private Paint linePaint, pointPaint, fillPaint, axisPaint, labelPaint;
+    private static final float MIN_VISIBLE_SLOTS = 4f;
+
+    private boolean zoomEnabled = false;
+    /** Visible slot range, or NaN when the whole series is shown. */
+    private float viewStart = Float.NaN;
+    private float viewEnd = Float.NaN;
+    private ScaleGestureDetector scaleDetector;
+    private GestureDetector gestureDetector;
+    private OverScroller scroller;
+    private float flingStep;
+
+    private final List<LineGeometry> geometries = new ArrayList<>();
+    private final LineChartLayout chartLayout = new LineChartLayout();
+    private final SnapshotPublisher snapshots = new SnapshotPublisher(this);
+    private final SnapshotPublisher.Capture layoutCapture = this::captureLayout;
+    private final StaticLayer staticLayer = new StaticLayer(this::paintStaticLayer);
+    private RenderSnapshot layerSnapshot;
+    private boolean layerWithSeries;
+
+    private final GraphLine.DataListener dataListener = this::onLineDataChanged;
+    /** Paged lines being listened to; pages arrive on the source's threads. */
+    private final List<PagedSeries> pagedSeries = new ArrayList<>();
+    private ChartSnapshotCache snapshotCache;
+    private final Runnable snapshotReady = this::invalidate;
+    /** Content key of the cached picture, rebuilt only when the layout inputs or the style change. */
+    private ChartSnapshotCache.Key snapshotKey;
+    private long snapshotKeyVersion;
+    private long snapshotKeyStyle;
+    /** Token of the state this view last left in {@link ChartState}'s holder; 0 if none. */
+    private long retainedToken;
+    /** Producer threads request frames through this; postInvalidateOnAnimation is safe off the main thread. */
+    private final Runnable frameRequest = this::postInvalidateOnAnimation;
+    private final PagedSeries.Listener pageListener = series -> post(this::onPageLoaded);
+    private boolean redrawPending;
+    private final MetricsRecorder metrics = new MetricsRecorder();
+
+    private Paint pointPaint, fillPaint, axisPaint;
+    private Paint tooltipPaint, tooltipBorderPaint, tooltipTitlePaint, tooltipValuePaint;
+    private final RectF tooltipRect = new RectF();
+    private final LabelFormatter labelFormatter = new LabelFormatter();
+    private final LineChartPainter painter = new LineChartPainter();
+    private final CanvasRenderer canvasRenderer = new CanvasRenderer();
 
     public LineChartView(Context context) {
         super(context);
@@ -53,8 +108,54 @@ public class LineChartView extends View {
     private void init() {
         setClickable(true);
 
-        linePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        linePaint.setStyle(Paint.Style.STROKE);
+        scroller = new OverScroller(getContext());
+        scaleDetector = new ScaleGestureDetector(getContext(), new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScale(ScaleGestureDetector detector) {
+                RenderSnapshot snapshot = snapshots.published();
+                if (snapshot == null || snapshot.xStep <= 0f) return false;
+                float focus = detector.getFocusX();
+                float focusSlot = snapshot.xOrigin + (focus - snapshot.plotLeft) / snapshot.xStep;
+                float span = (visibleEnd() - visibleStart()) / detector.getScaleFactor();
+                float fraction = (focus - snapshot.plotLeft) / (snapshot.plotRight - snapshot.plotLeft);
+                applyViewport(focusSlot - fraction * span, span);
+                return true;
+            }
+        });
+        gestureDetector = new GestureDetector(getContext(), new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(MotionEvent e) {
+                scroller.forceFinished(true);
+                return true;
+            }
+
+            @Override
+            public boolean onSingleTapUp(MotionEvent e) {
+                selectAt(e.getX(), e.getY());
+                return true;
+            }
+
+            @Override
+            public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+                RenderSnapshot snapshot = snapshots.published();
+                if (scaleDetector.isInProgress() || snapshot == null || snapshot.xStep <= 0f) return false;
+                float start = visibleStart();
+                applyViewport(start + distanceX / snapshot.xStep, visibleEnd() - start);
+                return true;
+            }
+
+            @Override
+            public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
+                RenderSnapshot snapshot = snapshots.published();
+                if (snapshot == null || snapshot.xStep <= 0f) return false;
+                float span = visibleEnd() - visibleStart();
+                flingStep = snapshot.xStep;
+                scroller.fling(Math.round(visibleStart() * flingStep), 0, Math.round(-velocityX), 0,
+                        0, Math.round((fullSpan() - span) * flingStep), 0, 0);
+                postInvalidateOnAnimation();
+                return true;
+            }
+        });
 
         pointPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         pointPaint.setStyle(Paint.Style.FILL);
@@ -63,26 +164,46 @@ public class LineChartView extends View {
         fillPaint.setStyle(Paint.Style.FILL);
 
         axisPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        axisPaint.setColor(Color.LTGRAY);
-        axisPaint.setStrokeWidth(2f);
-
-        labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        labelPaint.setColor(Color.DKGRAY);
-        labelPaint.setTextSize(28f);
-        labelPaint.setTextAlign(Paint.Align.CENTER);
+        axisPaint.setColor(LineChartPainter.AXIS_COLOR);
+        axisPaint.setStrokeWidth(LineChartPainter.AXIS_WIDTH);
+
+        tooltipPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        tooltipPaint.setColor(Color.WHITE);
+        tooltipPaint.setShadowLayer(8f, 0, 4f, Color.argb(100, 0, 0, 0));
+
+        tooltipBorderPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        tooltipBorderPaint.setColor(Color.LTGRAY);
+        tooltipBorderPaint.setStyle(Paint.Style.STROKE);
+        tooltipBorderPaint.setStrokeWidth(2f);
+
+        tooltipTitlePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        tooltipTitlePaint.setColor(Color.BLACK);
+        tooltipTitlePaint.setTextSize(36f);
+        tooltipTitlePaint.setTextAlign(Paint.Align.CENTER);
+        tooltipTitlePaint.setFakeBoldText(true);
+
+        tooltipValuePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        tooltipValuePaint.setTextSize(32f);
+        tooltipValuePaint.setTextAlign(Paint.Align.CENTER);
+        tooltipValuePaint.setFakeBoldText(true);
     }
 
     public void setGraphLines(List<GraphLine> lines) {
+        unregisterLines();
+        scroller.forceFinished(true);
+        viewStart = Float.NaN;
+        viewEnd = Float.NaN;
         this.graphLines = lines != null ? lines : new ArrayList<>();
-        this.referenceData = !graphLines.isEmpty() ? graphLines.get(0).values : new ArrayList<>();
-        shouldAnimateNextDraw = true;
-        animationProgress = 0f;
-        animationStarted = false;
+        if (isAttachedToWindow()) registerLines();
+        captureTransitionStart();
+        snapshots.markDirty();
+        animationPending = true;
         invalidate();
     }
 
     public void setXLabels(List<String> labels) {
         this.xLabels = labels != null ? labels : new ArrayList<>();
+        snapshots.markDirty();
         invalidate();
     }
 
@@ -91,9 +212,11 @@ public class LineChartView extends View {
         invalidate();
     }
 
+    /** Upper bound on the number of y labels; fewer may be shown so ticks land on round values. */
     public void setYLabelCount(int count) {
         if (count >= 2) {
             this.yLabelCount = count;
+            snapshots.markDirty();
             invalidate();
         }
     }
@@ -107,212 +230,660 @@ public class LineChartView extends View {
         this.animationDuration = durationMillis;
     }
 
-    private void startAnimation() {
-        animationStarted = true;
+    public void setLineRenderMode(LineRenderMode mode) {
+        canvasRenderer.segmentLines = mode == LineRenderMode.SEGMENTS;
+        invalidate();
+    }
 
-        ValueAnimator animator = ValueAnimator.ofFloat(0f, 1f);
-        animator.setDuration(animationDuration);
+    /**
+     * Runs scaling, downsampling and coordinate mapping on {@code executor} instead of inside {@code onDraw}.
+     * The chart keeps drawing the previous layout until the new one is ready. Pass null to lay out synchronously.
+     */
+    public void setLayoutExecutor(Executor executor) {
+        snapshots.setExecutor(executor);
+    }
 
-        if (animationType == AnimationType.WAVE) {
-            animator.setInterpolator(new OvershootInterpolator());
-        } else if (animationType == AnimationType.FADE_IN) {
-            animator.setInterpolator(new AccelerateDecelerateInterpolator());
-        } else if (animationType == AnimationType.EASE_IN_OUT) {
-            animator.setInterpolator(AnimationUtils.loadInterpolator(getContext(), android.R.interpolator.fast_out_slow_in));
+    /**
+     * Draws this chart as one cached bitmap from {@code cache}, shared with other charts, for example all sparklines
+     * of a RecyclerView. Equal data, style and size reuse the same bitmap; new ones are rendered off the main thread
+     * and appear a frame or two later. Animations and selection are off while a cache is set. Pass null to draw
+     * normally again.
+     */
+    public void setSnapshotCache(ChartSnapshotCache cache) {
+        this.snapshotCache = cache;
+        invalidate();
+    }
+
+    /**
+     * Prepares lines in parallel on {@code pool}: each line's min/max scan, downsampling and vertex packing run as
+     * separate tasks, then merge into one y range. Worth it for charts with many long lines; null (the default)
+     * prepares them one after another.
+     */
+    public void setPreparationPool(ForkJoinPool pool) {
+        chartLayout.pool = pool;
+        snapshots.markDirty();
+        invalidate();
+    }
+
+    /**
+     * Enables pinch-zoom, horizontal pan and fling. While enabled, a tap selects a sample instead of drag-scrubbing.
+     * Zoomed views are rendered from a min/max pyramid built once per data change, whatever the
+     * {@link DownsampleMode}, so each frame costs about the same regardless of series length.
+     */
+    public void setZoomEnabled(boolean enabled) {
+        this.zoomEnabled = enabled;
+        if (!enabled) resetViewport();
+    }
+
+    /**
+     * Shows sample slots {@code fromIndex} to {@code toIndex}, clamped to the data. On timestamped charts the
+     * arguments are times relative to the earliest timestamp.
+     */
+    public void setViewport(float fromIndex, float toIndex) {
+        applyViewport(fromIndex, toIndex - fromIndex);
+    }
+
+    public void resetViewport() {
+        scroller.forceFinished(true);
+        applyViewport(0f, Float.MAX_VALUE);
+    }
+
+    private float fullSpan() {
+        return LineChartLayout.fullSpan(graphLines, referenceSlots());
+    }
+
+    private float visibleStart() {
+        return Float.isNaN(viewStart) ? 0f : viewStart;
+    }
+
+    private float visibleEnd() {
+        return Float.isNaN(viewEnd) ? fullSpan() : viewEnd;
+    }
+
+    private void applyViewport(float start, float span) {
+        float full = fullSpan();
+        span = Math.max(Math.min(MIN_VISIBLE_SLOTS, full), Math.min(span, full));
+        start = Math.max(0f, Math.min(start, full - span));
+        float newStart = span >= full ? Float.NaN : start;
+        float newEnd = span >= full ? Float.NaN : start + span;
+        if (Float.compare(newStart, viewStart) == 0 && Float.compare(newEnd, viewEnd) == 0) return;
+        viewStart = newStart;
+        viewEnd = newEnd;
+        // Vertices change with the viewport, so there is nothing left to interpolate between.
+        if (animation.isRunning()) finishAnimation();
+        snapshots.markDirty();
+        scheduleRedraw();
+    }
+
+    @Override
+    public void computeScroll() {
+        super.computeScroll();
+        if (scroller.computeScrollOffset() && flingStep > 0f) {
+            applyViewport(scroller.getCurrX() / flingStep, visibleEnd() - visibleStart());
+            postInvalidateOnAnimation();
         }
+    }
 
-        animator.addUpdateListener(animation -> {
-            animationProgress = (float) animation.getAnimatedValue();
-            invalidate();
-        });
-        animator.start();
+    /**
+     * Records per-frame draw time, points submitted vs. drawn, path rebuilds, cache hit rates and animation frames.
+     * Off by default; while off, the bookkeeping is a few field checks per frame.
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        metrics.enabled = enabled;
+    }
+
+    /** Receives every frame's metrics; a non-null listener also enables metrics. */
+    public void setMetricsListener(ChartMetricsListener listener) {
+        metrics.listener = listener;
+        if (listener != null) metrics.enabled = true;
+    }
+
+    /** Frames whose {@code onDraw} takes longer than this count as over budget. Defaults to one 60 Hz frame. */
+    public void setFrameBudgetNanos(long budgetNanos) {
+        metrics.frameBudgetNanos = budgetNanos;
+    }
+
+    public ChartMetrics getMetrics() {
+        return new ChartMetrics(metrics);
+    }
+
+    public void resetMetrics() {
+        metrics.reset();
+    }
+
+    /**
+     * Makes the next animation start from what is on screen now: the current frame of a running animation, else
+     * the last drawn layout. Lines that were not drawn grow up from the baseline.
+     */
+    private void captureTransitionStart() {
+        boolean running = animation.isRunning();
+        RenderSnapshot shown = layerSnapshot;
+        while (geometries.size() > graphLines.size()) {
+            geometries.remove(geometries.size() - 1);
+        }
+        while (geometries.size() < graphLines.size()) {
+            geometries.add(new LineGeometry());
+        }
+        for (int l = 0; l < geometries.size(); l++) {
+            LineGeometry geometry = geometries.get(l);
+            if (running) {
+                geometry.startFrom(geometry.frame, geometry.frameCount);
+            } else if (shown != null && l < shown.lineCount()) {
+                geometry.startFrom(shown.lineVertices[l], shown.lineVertexCounts[l]);
+            } else {
+                geometry.startFrom(null, 0);
+            }
+        }
+    }
+
+    private void startAnimation() {
+        if (animationType == AnimationType.NONE) {
+            finishAnimation();
+            return;
+        }
+        animationProgress = 0f;
+        ChartAnimator.get().start(animation, animationDuration,
+                ChartAnimator.interpolatorFor(getContext(), animationType));
+    }
+
+    private void finishAnimation() {
+        ChartAnimator.get().cancel(animation);
+        animationProgress = 1f;
+    }
+
+    private void onAnimationFrame(float fraction) {
+        animationProgress = fraction;
+        invalidate();
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
-        if (graphLines.isEmpty() || referenceData.size() < 2) return;
+        long frameStart = metrics.beginFrame();
+        drawChart(canvas);
+        metrics.endFrame(this, frameStart);
+    }
 
-        if (shouldAnimateNextDraw && !animationStarted) {
-            if (animationType != AnimationType.NONE) {
-                startAnimation();
-                shouldAnimateNextDraw = false;
-                return;
-            } else {
-                animationProgress = 1f;
-                animationStarted = true;
+    private void drawChart(Canvas canvas) {
+        // Samples offered from producer threads join their lines once per frame; this frame draws them already.
+        redrawPending = true;
+        for (int l = 0; l < graphLines.size(); l++) {
+            graphLines.get(l).drainIngest();
+        }
+        redrawPending = false;
+        if (graphLines.isEmpty() || referenceData().size() < 2) return;
+
+        if (snapshotCache != null) {
+            animationPending = false;
+            drawCachedSnapshot(canvas);
+            return;
+        }
+
+        if (animationPending) {
+            animationPending = false;
+            startAnimation();
+        }
+
+        RenderSnapshot snapshot = snapshots.acquire(layoutCapture);
+        if (snapshot == null) return;
+        // Until a layout for replaced lines is published, the last snapshot is drawn with the lines it was made for.
+        List<GraphLine> lines = snapshot.lines;
+        metrics.layout(snapshot);
+        if (metrics.enabled) {
+            for (int l = 0; l < lines.size(); l++) {
+                metrics.points(lines.get(l).getValues().size(), snapshot.lineVertexCounts[l]);
             }
         }
 
-        float width = getWidth();
-        float height = getHeight();
+        while (geometries.size() < lines.size()) {
+            geometries.add(new LineGeometry());
+        }
+
+        // Axes, labels and, once an animation is over, the series come from the cached layer.
+        boolean animating = animation.isRunning();
+        layerSnapshot = snapshot;
+        layerWithSeries = !animating;
+        metrics.layer(staticLayer.draw(canvas, getWidth(), getHeight(), snapshot,
+                styleKey(lines) * 31 + (animating ? 1 : 0)));
 
-        float paddingLeft = 80f;
-        float paddingRight = 40f;
-        float paddingTop = 40f;
-        float paddingBottom = 60f;
+        if (animating) {
+            metrics.animationFrame();
+            drawAnimatedSeries(canvas, snapshot);
+        }
 
-        float usableWidth = width - paddingLeft - paddingRight;
-        float usableHeight = height - paddingTop - paddingBottom;
+        if (selectedIndex >= 0 && !lines.isEmpty() && selectedIndex < lines.get(0).getValues().size()) {
+            drawSelection(canvas, snapshot);
+        }
+    }
 
-        float maxValue = Float.MIN_VALUE;
-        for (GraphLine line : graphLines) {
-            for (Float value : line.values) {
-                if (value > maxValue) maxValue = value;
-            }
+    private void paintStaticLayer(Canvas canvas) {
+        canvasRenderer.begin(canvas);
+        if (layerWithSeries) {
+            int builds = canvasRenderer.pathBuilds;
+            painter.paintSeries(canvasRenderer, layerSnapshot, layerSnapshot.lines);
+            metrics.pathsRebuilt(canvasRenderer.pathBuilds - builds);
+        }
+        if (showAxis) {
+            painter.paintAxes(canvasRenderer, layerSnapshot, xLabels);
+        }
+    }
+
+    /** Blits the cached picture of this chart, or has it rendered in the background and redraws once it is ready. */
+    private void drawCachedSnapshot(Canvas canvas) {
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0) return;
+        long style = styleKey(graphLines);
+        ChartSnapshotCache.Key key = snapshotKey;
+        if (key == null || key.width != width || key.height != height
+                || snapshotKeyVersion != snapshots.inputVersion() || snapshotKeyStyle != style) {
+            key = snapshotKey = snapshotKey(width, height);
+            snapshotKeyVersion = snapshots.inputVersion();
+            snapshotKeyStyle = style;
+        }
+        Bitmap bitmap = snapshotCache.get(key);
+        if (bitmap != null) {
+            canvas.drawBitmap(bitmap, 0f, 0f, null);
+            return;
         }
-        float range = maxValue == 0 ? 1 : maxValue;
-        float xStep = usableWidth / (referenceData.size() - 1);
 
+        List<GraphLine> lines = new ArrayList<>(graphLines.size());
         for (GraphLine line : graphLines) {
-            List<Float> data = line.values;
-            Path path = new Path();
-
-            float prevX = 0, prevY = 0;
-
-            for (int i = 0; i < data.size(); i++) {
-                float x = paddingLeft + i * xStep;
-                float yRatio = data.get(i) / range;
-                float y = paddingTop + usableHeight * (1f - yRatio * animationProgress);
-
-                if (i == 0) {
-                    path.moveTo(x, y);
-                } else {
-                    if (line.smoothLine) {
-                        float midX = (prevX + x) / 2f;
-                        float midY = (prevY + y) / 2f;
-                        path.quadTo(prevX, prevY, midX, midY);
-                    } else {
-                        path.lineTo(x, y);
-                    }
-                }
+            lines.add(line.copy());
+        }
+        List<String> labels = new ArrayList<>(xLabels);
+        LineChartLayout.Input input = new LineChartLayout.Input(0, width, height, lines, referenceSlots(),
+                labels.size(), yLabelCount, visibleStart(), visibleEnd());
+        boolean axis = showAxis;
+        boolean segments = canvasRenderer.segmentLines;
+        snapshotCache.request(key, target -> {
+            RenderSnapshot snapshot = new LineChartLayout().layout(input);
+            CanvasRenderer renderer = new CanvasRenderer().begin(target);
+            renderer.segmentLines = segments;
+            LineChartPainter linePainter = new LineChartPainter();
+            linePainter.paintSeries(renderer, snapshot, lines);
+            if (axis) linePainter.paintAxes(renderer, snapshot, labels);
+        }, snapshotReady);
+    }
 
-                prevX = x;
-                prevY = y;
+    /** Everything the chart draws, by content, so rebinding equal data finds the cached picture. */
+    private ChartSnapshotCache.Key snapshotKey(int width, int height) {
+        ChartSnapshotCache.Key key = new ChartSnapshotCache.Key(width, height);
+        key.mix((showAxis ? 1 : 0) + (canvasRenderer.segmentLines ? 2 : 0));
+        key.mix(yLabelCount);
+        key.mix(xLabels.hashCode());
+        key.mix(Float.floatToIntBits(visibleStart()));
+        key.mix(Float.floatToIntBits(visibleEnd()));
+        for (int l = 0; l < graphLines.size(); l++) {
+            GraphLine line = graphLines.get(l);
+            key.mix(line.color);
+            key.mix(Float.floatToIntBits(line.lineWidth));
+            key.mix(Float.floatToIntBits(line.pointRadius));
+            key.mix((line.showPoints ? 1 : 0) + (line.smoothLine ? 2 : 0) + line.downsampleMode.ordinal() * 4);
+            key.mix(line.getValues());
+            Timestamps times = line.getTimestamps();
+            if (times != null) {
+                for (int i = 0; i < times.size(); i++) key.mix(times.get(i));
             }
+        }
+        return key;
+    }
+
+    /** Changes whenever something drawn into the static layer changes without a new layout. */
+    private long styleKey(List<GraphLine> lines) {
+        long key = (showAxis ? 1 : 0) + (canvasRenderer.segmentLines ? 2 : 0);
+        key = key * 31 + System.identityHashCode(xLabels);
+        for (int l = 0; l < lines.size(); l++) {
+            GraphLine line = lines.get(l);
+            key = key * 31 + line.color;
+            key = key * 31 + Float.floatToIntBits(line.lineWidth);
+            key = key * 31 + Float.floatToIntBits(line.pointRadius);
+            key = key * 31 + (line.showPoints ? 1 : 0) + (line.smoothLine ? 2 : 0);
+        }
+        return key;
+    }
 
-            linePaint.setColor(line.color);
-            linePaint.setStrokeWidth(line.lineWidth);
-            canvas.drawPath(path, linePaint);
+    /** Animation frames: each line interpolated from where the transition started, drawn over the static layer. */
+    private void drawAnimatedSeries(Canvas canvas, RenderSnapshot snapshot) {
+        float baseline = snapshot.plotBottom;
+        List<GraphLine> lines = snapshot.lines;
+        ChartRenderer renderer = canvasRenderer.begin(canvas);
+        if (snapshot.zoomed) {
+            renderer.pushClip(snapshot.plotLeft, 0f, snapshot.plotRight, snapshot.height);
+        }
 
-            if (line.showPoints) {
+        int builds = canvasRenderer.pathBuilds;
+        for (int l = 0; l < lines.size(); l++) {
+            GraphLine line = lines.get(l);
+            LineGeometry geometry = geometries.get(l);
+            geometry.interpolate(snapshot.lineVertices[l], snapshot.lineVertexCounts[l], animationProgress, baseline);
+            painter.paintLine(renderer, geometry.frame, geometry.frameCount, line);
+        }
+        metrics.pathsRebuilt(canvasRenderer.pathBuilds - builds);
+        if (snapshot.zoomed) {
+            renderer.popClip();
+        }
+    }
+
+    private void drawSelection(Canvas canvas, RenderSnapshot snapshot) {
+        List<GraphLine> lines = snapshot.lines;
+        float width = getWidth();
+        float paddingTop = snapshot.plotTop;
+        float baseline = snapshot.plotBottom;
+
+        float x = LineHitTester.sampleX(snapshot, lines, 0, selectedIndex);
+        canvas.drawLine(x, paddingTop, x, baseline, axisPaint);
+
+        if (selectedLine >= 0 && selectedLine < lines.size()) {
+            GraphLine line = lines.get(selectedLine);
+            int sample = LineHitTester.sampleFor(snapshot, lines, selectedLine, selectedIndex);
+            float value = sample >= 0 && sample < line.getValues().size() ? line.getValues().get(sample) : Float.NaN;
+            if (!Float.isNaN(value)) {
+                float y = snapshot.yFor(value);
                 pointPaint.setColor(line.color);
-                for (int i = 0; i < data.size(); i++) {
-                    float x = paddingLeft + i * xStep;
-                    float yRatio = data.get(i) / range;
-                    float y = paddingTop + usableHeight * (1f - yRatio * animationProgress);
-                    canvas.drawCircle(x, y, line.pointRadius, pointPaint);
-                }
+                canvas.drawCircle(LineHitTester.sampleX(snapshot, lines, selectedLine, sample), y,
+                        Math.max(line.pointRadius, line.lineWidth) * 1.5f, pointPaint);
             }
         }
 
-        if (showAxis) {
-            canvas.drawLine(paddingLeft, paddingTop + usableHeight, width - paddingRight, paddingTop + usableHeight, axisPaint);
-            canvas.drawLine(paddingLeft, paddingTop, paddingLeft, paddingTop + usableHeight, axisPaint);
-
-            for (int i = 0; i < referenceData.size(); i++) {
-                float x = paddingLeft + i * xStep;
-                if (i < xLabels.size()) {
-                    canvas.drawText(xLabels.get(i), x, height - 20f, labelPaint);
+        float boxWidth = 250f;
+        float lineHeight = 60f;
+        float padding = 20f;
+        float boxHeight = padding + 36f + (lines.size() * lineHeight) + padding * 3;
+        float y = paddingTop + 20f;
+        float boxLeft = Math.max(10f, Math.min(x - boxWidth / 2f, width - boxWidth - 10f));
+        float boxTop = y;
+        float boxCenterX = boxLeft + boxWidth / 2f;
+
+        tooltipRect.set(boxLeft, boxTop, boxLeft + boxWidth, boxTop + boxHeight);
+        canvas.drawRoundRect(tooltipRect, 16f, 16f, tooltipPaint);
+        canvas.drawRoundRect(tooltipRect, 16f, 16f, tooltipBorderPaint);
+
+        canvas.drawText(
+                selectedIndex < xLabels.size() ? xLabels.get(selectedIndex) : "",
+                boxCenterX,
+                boxTop + 50f + padding,
+                tooltipTitlePaint
+        );
+
+        for (int i = 0; i < lines.size(); i++) {
+            GraphLine line = lines.get(i);
+            int sample = LineHitTester.sampleFor(snapshot, lines, i, selectedIndex);
+            if (sample >= 0 && sample < line.getValues().size()) {
+                float value = line.getValues().get(sample);
+                labelFormatter.clear();
+                if (line.title != null) {
+                    labelFormatter.append(line.title).append(" : ");
                 }
+                labelFormatter.appendRounded(value);
+
+                tooltipValuePaint.setColor(line.color);
+                canvas.drawText(
+                        labelFormatter.buffer,
+                        0,
+                        labelFormatter.length,
+                        boxCenterX,
+                        boxTop + 70f + (i * 60f) + lineHeight,
+                        tooltipValuePaint
+                );
             }
+        }
+    }
 
-            labelPaint.setTextAlign(Paint.Align.RIGHT);
-            for (int i = 0; i < yLabelCount; i++) {
-                float fraction = (float) i / (yLabelCount - 1);
-                float value = maxValue * (1f - fraction);
-                float y = paddingTop + usableHeight * fraction;
-                canvas.drawText(String.format("%.0f", value), paddingLeft - 12f, y + labelPaint.getTextSize() / 2f, labelPaint);
-            }
-            labelPaint.setTextAlign(Paint.Align.CENTER);
-        }
-
-        if (selectedIndex >= 0 && selectedIndex < referenceData.size()) {
-            float x = paddingLeft + selectedIndex * xStep;
-
-            float boxWidth = 250f;
-            float lineHeight = 60f;
-            float padding = 20f;
-            float boxHeight = padding + 36f + (graphLines.size() * lineHeight) + padding * 3;
-            float y = paddingTop + 20f;
-            float boxLeft = Math.max(10f, Math.min(x - boxWidth / 2f, width - boxWidth - 10f));
-            float boxTop = y;
-            float boxCenterX = boxLeft + boxWidth / 2f;
-
-            Paint tooltipPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-            tooltipPaint.setColor(Color.WHITE);
-            tooltipPaint.setShadowLayer(8f, 0, 4f, Color.argb(100, 0, 0, 0));
-
-            Paint borderPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-            borderPaint.setColor(Color.LTGRAY);
-            borderPaint.setStyle(Paint.Style.STROKE);
-            borderPaint.setStrokeWidth(2f);
-
-            RectF rect = new RectF(boxLeft, boxTop, boxLeft + boxWidth, boxTop + boxHeight);
-            canvas.drawRoundRect(rect, 16f, 16f, tooltipPaint);
-            canvas.drawRoundRect(rect, 16f, 16f, borderPaint);
-
-            Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-            textPaint.setColor(Color.BLACK);
-            textPaint.setTextSize(36f);
-            textPaint.setTextAlign(Paint.Align.CENTER);
-            textPaint.setFakeBoldText(true);
-
-            canvas.drawText(
-                    selectedIndex < xLabels.size() ? xLabels.get(selectedIndex) : "",
-                    boxCenterX,
-                    boxTop + 50f + padding,
-                    textPaint
-            );
-
-            for (int i = 0; i < graphLines.size(); i++) {
-                GraphLine line = graphLines.get(i);
-                if (selectedIndex < line.values.size()) {
-                    float value = line.values.get(selectedIndex);
-                    String valueText = (line.title != null ? line.title + " : " : "") + String.format("%.0f", value);
-
-                    Paint valuePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-                    valuePaint.setColor(line.color);
-                    valuePaint.setTextSize(32f);
-                    valuePaint.setTextAlign(Paint.Align.CENTER);
-                    valuePaint.setFakeBoldText(true);
-
-                    canvas.drawText(
-                            valueText,
-                            boxCenterX,
-                            boxTop + 70f + (i * 60f) + lineHeight,
-                            valuePaint
-                    );
-                }
+    private FloatSeries referenceData() {
+        return !graphLines.isEmpty() ? graphLines.get(0).getValues() : FloatSeries.empty();
+    }
+
+    private int referenceSlots() {
+        return LineChartLayout.slotsFor(referenceData());
+    }
+
+    private void registerLines() {
+        for (GraphLine line : graphLines) {
+            line.addDataListener(dataListener);
+            line.frameRequest = frameRequest;
+        }
+        watchPagedSeries(true);
+    }
+
+    private void unregisterLines() {
+        for (GraphLine line : graphLines) {
+            line.removeDataListener(dataListener);
+            if (line.frameRequest == frameRequest) line.frameRequest = null;
+        }
+        watchPagedSeries(false);
+    }
+
+    /** Listens for pages of the lines' paged series, dropping series no longer shown. */
+    private void watchPagedSeries(boolean attached) {
+        for (PagedSeries series : pagedSeries) {
+            series.removeListener(pageListener);
+        }
+        pagedSeries.clear();
+        if (!attached) return;
+        for (GraphLine line : graphLines) {
+            if (line.getValues() instanceof PagedSeries) {
+                PagedSeries series = (PagedSeries) line.getValues();
+                series.addListener(pageListener);
+                pagedSeries.add(series);
             }
         }
     }
 
+    private void onLineDataChanged(GraphLine line) {
+        if (line.getValues() instanceof PagedSeries || !pagedSeries.isEmpty()) watchPagedSeries(true);
+        snapshots.markDirty();
+        scheduleRedraw();
+    }
+
+    private void onPageLoaded() {
+        snapshots.markDirty();
+        scheduleRedraw();
+    }
+
+    /** Redraws on the next frame; repeated calls before that frame collapse into one draw. */
+    private void scheduleRedraw() {
+        if (!redrawPending) {
+            redrawPending = true;
+            postInvalidateOnAnimation();
+        }
+    }
+
     @Override
-    public boolean onTouchEvent(MotionEvent event) {
-        if (event.getAction() == MotionEvent.ACTION_DOWN && !referenceData.isEmpty()) {
-            float touchX = event.getX();
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        registerLines();
+        snapshots.markDirty();
+    }
 
-            float width = getWidth();
-            float paddingLeft = 80f;
-            float paddingRight = 40f;
-            float usableWidth = width - paddingLeft - paddingRight;
-            float xStep = usableWidth / (referenceData.size() - 1);
+    @Override
+    protected void onDetachedFromWindow() {
+        unregisterLines();
+        redrawPending = false;
+        staticLayer.release();
+        layerSnapshot = null;
+        finishAnimation();
+        if (ChartState.isFinishing(getContext())) releaseRetainedState();
+        super.onDetachedFromWindow();
+    }
 
-            for (int i = 0; i < referenceData.size(); i++) {
-                float x = paddingLeft + i * xStep;
+    private SnapshotPublisher.Layout captureLayout(long sequence) {
+        int slots = referenceSlots();
+        LineChartLayout.Input input = Float.isNaN(viewStart)
+                ? new LineChartLayout.Input(sequence, getWidth(), getHeight(), graphLines, slots, xLabels.size(),
+                        yLabelCount)
+                : new LineChartLayout.Input(sequence, getWidth(), getHeight(), graphLines, slots, xLabels.size(),
+                        yLabelCount, viewStart, viewEnd);
+        return () -> chartLayout.layout(input);
+    }
 
-                if (Math.abs(touchX - x) < TOUCH_TOLERANCE_X) {
-                    selectedIndex = i;
-                    invalidate();
+    /**
+     * Saves lines, labels, selection and viewport so a recreated chart draws its first frame as it was, without an
+     * entrance animation. Like any view state, it needs the view to have an id.
+     */
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState state = new SavedState(super.onSaveInstanceState());
+        releaseRetainedState();
+        state.selectedIndex = selectedIndex;
+        state.selectedLine = selectedLine;
+        state.viewStart = viewStart;
+        state.viewEnd = viewEnd;
+        state.lines = graphLines;
+        state.labels = xLabels;
+        if (ChartState.parcelBytes(graphLines, xLabels) > ChartState.MAX_PARCEL_BYTES) {
+            state.token = retainedToken = ChartState.retain(state);
+        }
+        return state;
+    }
 
-                    return true;
-                }
+    private void releaseRetainedState() {
+        if (retainedToken != 0) ChartState.take(retainedToken);
+        retainedToken = 0;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState saved = (SavedState) state;
+        super.onRestoreInstanceState(saved.getSuperState());
+        SavedState data = saved.token != 0 ? (SavedState) ChartState.take(saved.token) : saved;
+        if (data == null) return;
+        setGraphLines(data.lines);
+        setXLabels(data.labels);
+        viewStart = data.viewStart;
+        viewEnd = data.viewEnd;
+        selectedIndex = data.selectedIndex;
+        selectedLine = data.selectedLine;
+        animationPending = false;
+        finishAnimation();
+    }
+
+    public static final class SavedState extends BaseSavedState {
+        List<GraphLine> lines;
+        List<String> labels;
+        /** Set instead of parceling lines and labels when they are too large; see {@link ChartState}. */
+        long token;
+        int selectedIndex = -1;
+        int selectedLine = -1;
+        float viewStart = Float.NaN;
+        float viewEnd = Float.NaN;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            token = in.readLong();
+            if (token == 0) {
+                lines = ChartState.readLines(in);
+                labels = in.createStringArrayList();
             }
+            selectedIndex = in.readInt();
+            selectedLine = in.readInt();
+            viewStart = in.readFloat();
+            viewEnd = in.readFloat();
+        }
 
-            selectedIndex = -1;
-            invalidate();
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeLong(token);
+            if (token == 0) {
+                ChartState.writeLines(out, lines);
+                out.writeStringList(labels);
+            }
+            out.writeInt(selectedIndex);
+            out.writeInt(selectedLine);
+            out.writeFloat(viewStart);
+            out.writeFloat(viewEnd);
+        }
+
+        public static final Creator<SavedState> CREATOR = new Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        snapshots.markDirty();
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        RenderSnapshot snapshot = snapshots.published();
+        int size = referenceData().size();
+        if (snapshot == null || size == 0) return super.onTouchEvent(event);
+
+        if (zoomEnabled) {
+            scaleDetector.onTouchEvent(event);
+            gestureDetector.onTouchEvent(event);
+            int action = event.getActionMasked();
+            if (getParent() != null && (action == MotionEvent.ACTION_DOWN || action == MotionEvent.ACTION_UP
+                    || action == MotionEvent.ACTION_CANCEL)) {
+                getParent().requestDisallowInterceptTouchEvent(action == MotionEvent.ACTION_DOWN);
+            }
+            return true;
+        }
+
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                if (selectAt(event.getX(), event.getY())) {
+                    scrubbing = true;
+                    if (getParent() != null) getParent().requestDisallowInterceptTouchEvent(true);
+                    return true;
+                }
+                break;
+            case MotionEvent.ACTION_MOVE:
+                if (scrubbing) {
+                    int index = LineHitTester.nearestIndex(snapshot, event.getX(), graphLines.get(0));
+                    select(index, LineHitTester.nearestLine(snapshot, graphLines, index, event.getY()));
+                    return true;
+                }
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                if (scrubbing) {
+                    scrubbing = false;
+                    if (getParent() != null) getParent().requestDisallowInterceptTouchEvent(false);
+                    return true;
+                }
+                break;
         }
         return super.onTouchEvent(event);
     }
+
+    /** Selects the sample under {@code x}, or clears the selection when none is close enough. */
+    private boolean selectAt(float x, float y) {
+        RenderSnapshot snapshot = snapshots.published();
+        int size = referenceData().size();
+        if (snapshot == null || size == 0) return false;
+        int index = LineHitTester.nearestIndex(snapshot, x, graphLines.get(0));
+        if (Math.abs(x - LineHitTester.sampleX(snapshot, graphLines, 0, index)) < TOUCH_TOLERANCE_X) {
+            select(index, LineHitTester.nearestLine(snapshot, graphLines, index, y));
+            return true;
+        }
+        select(-1, -1);
+        return false;
+    }
+
+    private void select(int index, int line) {
+        if (index == selectedIndex && line == selectedLine) return;
+        selectedIndex = index;
+        selectedLine = line;
+        scheduleRedraw();
+    }
 }
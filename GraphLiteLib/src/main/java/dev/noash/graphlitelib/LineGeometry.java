@@ -0,0 +1,37 @@
+package dev.noash.graphlitelib;
+
+/**
+ * UI-side animation state for one line: the vertices a transition starts from and the interpolated vertices drawn
+ * on each animation frame. Arrays grow to the largest line seen and are reused across frames.
+ */
+final class LineGeometry {
+    /** Vertices drawn on the last animation frame. */
+    float[] frame = new float[0];
+    int frameCount;
+
+    private float[] from = new float[0];
+    private int fromCount;
+
+    /** The next transition starts from these vertices; a count of 0 grows the line up from the baseline. */
+    void startFrom(float[] vertices, int count) {
+        if (from.length < count * 2) from = new float[count * 2];
+        if (count > 0) System.arraycopy(vertices, 0, from, 0, count * 2);
+        fromCount = count;
+    }
+
+    /**
+     * Fills {@link #frame} with the vertices {@code fraction} of the way from the start vertices to {@code to}.
+     * Lines whose vertex count changed grow from {@code baseline} instead.
+     */
+    void interpolate(float[] to, int count, float fraction, float baseline) {
+        if (frame.length < count * 2) frame = new float[count * 2];
+        boolean morph = fromCount == count;
+        for (int k = 0; k < count * 2; k += 2) {
+            float startX = morph ? from[k] : to[k];
+            float startY = morph ? from[k + 1] : baseline;
+            frame[k] = startX + (to[k] - startX) * fraction;
+            frame[k + 1] = startY + (to[k + 1] - startY) * fraction;
+        }
+        frameCount = count;
+    }
+}
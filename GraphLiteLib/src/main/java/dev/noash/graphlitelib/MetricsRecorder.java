@@ -0,0 +1,104 @@
+package dev.noash.graphlitelib;
+
+import android.view.View;
+
+/**
+ * Per-chart frame counters. Every hook returns immediately while disabled, so charts can call them unconditionally.
+ */
+final class MetricsRecorder {
+    static final long DEFAULT_FRAME_BUDGET_NANOS = 16_666_667L;
+
+    boolean enabled;
+    ChartMetricsListener listener;
+    long frameBudgetNanos = DEFAULT_FRAME_BUDGET_NANOS;
+
+    long frames;
+    long animationFrames;
+    long framesOverBudget;
+    long totalDrawNanos;
+    long maxDrawNanos;
+    long pointsSubmitted;
+    long pointsDrawn;
+    long pathRebuilds;
+    long layoutHits;
+    long layoutMisses;
+    long layerHits;
+    long layerMisses;
+
+    private int framePointsSubmitted;
+    private int framePointsDrawn;
+    private Object lastLayout;
+
+    /** Returns the frame start time, or 0 when disabled. */
+    long beginFrame() {
+        if (!enabled) return 0;
+        framePointsSubmitted = 0;
+        framePointsDrawn = 0;
+        return System.nanoTime();
+    }
+
+    void endFrame(View chart, long start) {
+        if (!enabled || start == 0) return;
+        long duration = System.nanoTime() - start;
+        boolean overBudget = duration > frameBudgetNanos;
+        frames++;
+        totalDrawNanos += duration;
+        if (duration > maxDrawNanos) maxDrawNanos = duration;
+        if (overBudget) framesOverBudget++;
+        pointsSubmitted += framePointsSubmitted;
+        pointsDrawn += framePointsDrawn;
+        if (listener != null) {
+            listener.onFrame(chart, duration, framePointsSubmitted, framePointsDrawn, overBudget);
+        }
+    }
+
+    void points(int submitted, int drawn) {
+        if (!enabled) return;
+        framePointsSubmitted += submitted;
+        framePointsDrawn += drawn;
+    }
+
+    /** Records whether this frame drew the same layout result as the previous one. */
+    void layout(Object snapshot) {
+        if (!enabled) return;
+        if (snapshot == lastLayout) {
+            layoutHits++;
+        } else {
+            layoutMisses++;
+            lastLayout = snapshot;
+        }
+    }
+
+    void layer(boolean repainted) {
+        if (!enabled) return;
+        if (repainted) {
+            layerMisses++;
+        } else {
+            layerHits++;
+        }
+    }
+
+    void pathsRebuilt(int count) {
+        if (enabled) pathRebuilds += count;
+    }
+
+    void animationFrame() {
+        if (enabled) animationFrames++;
+    }
+
+    void reset() {
+        frames = 0;
+        animationFrames = 0;
+        framesOverBudget = 0;
+        totalDrawNanos = 0;
+        maxDrawNanos = 0;
+        pointsSubmitted = 0;
+        pointsDrawn = 0;
+        pathRebuilds = 0;
+        layoutHits = 0;
+        layoutMisses = 0;
+        layerHits = 0;
+        layerMisses = 0;
+        lastLayout = null;
+    }
+}
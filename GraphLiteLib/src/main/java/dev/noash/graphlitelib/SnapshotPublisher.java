@@ -0,0 +1,88 @@
+package dev.noash.graphlitelib;
+
+import android.view.View;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Runs a chart's layout stage and publishes the resulting {@link RenderSnapshot} to the UI thread.
+ * Without an executor the layout runs inline in {@code onDraw}; with one, {@code onDraw} keeps drawing the last
+ * published snapshot until the new one arrives. At most one layout is in flight; changes made meanwhile are
+ * coalesced into a single follow-up pass.
+ */
+final class SnapshotPublisher {
+    interface Layout {
+        RenderSnapshot compute();
+    }
+
+    interface Capture {
+        /** Called on the UI thread; must copy every input the layout will read. */
+        Layout capture(long sequence);
+    }
+
+    private final View view;
+    private Executor executor;
+    private RenderSnapshot published;
+    private boolean dirty = true;
+    private boolean inFlight;
+    private long sequence;
+    private long inputVersion;
+
+    SnapshotPublisher(View view) {
+        this.view = view;
+    }
+
+    void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    void markDirty() {
+        dirty = true;
+        inputVersion++;
+    }
+
+    /** Changes whenever {@link #markDirty()} is called, including while snapshots are not being acquired. */
+    long inputVersion() {
+        return inputVersion;
+    }
+
+    RenderSnapshot published() {
+        return published;
+    }
+
+    /** Returns the snapshot to draw now, starting a new layout pass first if the inputs changed. */
+    RenderSnapshot acquire(Capture capture) {
+        if (!dirty || inFlight) return published;
+        dirty = false;
+
+        Layout layout = capture.capture(++sequence);
+        if (executor == null) {
+            published = layout.compute();
+            return published;
+        }
+
+        inFlight = true;
+        executor.execute(() -> {
+            RenderSnapshot snapshot;
+            try {
+                snapshot = layout.compute();
+            } catch (RuntimeException e) {
+                view.post(() -> {
+                    inFlight = false;
+                    throw e;
+                });
+                return;
+            }
+            view.post(() -> publish(snapshot));
+        });
+        return published;
+    }
+
+    private void publish(RenderSnapshot snapshot) {
+        inFlight = false;
+        if (published == null || snapshot.sequence > published.sequence) {
+            published = snapshot;
+        }
+        view.invalidate();
+    }
+}
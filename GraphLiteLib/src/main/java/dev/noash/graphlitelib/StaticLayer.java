@@ -0,0 +1,117 @@
+package dev.noash.graphlitelib;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.RecordingCanvas;
+import android.graphics.RenderNode;
+import android.os.Build;
+
+/**
+ * Caches the parts of a chart that only change with its data, size or style, so selection overlays and animation
+ * frames can be composited on top without redrawing axes and labels. Records a {@link RenderNode} display list on
+ * hardware-accelerated canvases on API 29+, and falls back to an offscreen bitmap everywhere else.
+ */
+final class StaticLayer {
+
+    interface Painter {
+        void paint(Canvas canvas);
+    }
+
+    private final Painter painter;
+
+    private Object content;
+    private long style;
+    private int width;
+    private int height;
+    private boolean valid;
+
+    private NodeCache node;
+    private Bitmap bitmap;
+    private Canvas bitmapCanvas;
+    private boolean recordedAsNode;
+
+    StaticLayer(Painter painter) {
+        this.painter = painter;
+    }
+
+    /**
+     * Draws the cached layer, repainting it first if {@code content}, {@code style} or the size differ from the
+     * last call. {@code content} is compared by identity. Returns true if the layer was repainted.
+     */
+    boolean draw(Canvas canvas, int width, int height, Object content, long style) {
+        if (width <= 0 || height <= 0) return false;
+
+        boolean useNode = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && canvas.isHardwareAccelerated();
+        boolean repaint = !valid || content != this.content || style != this.style || width != this.width
+                || height != this.height || useNode != recordedAsNode;
+        if (repaint) {
+            if (useNode) {
+                if (node == null) node = new NodeCache();
+                node.record(painter, width, height);
+            } else {
+                paintBitmap(width, height);
+            }
+            this.content = content;
+            this.style = style;
+            this.width = width;
+            this.height = height;
+            recordedAsNode = useNode;
+            valid = true;
+        }
+
+        if (useNode) {
+            node.draw(canvas);
+        } else {
+            canvas.drawBitmap(bitmap, 0f, 0f, null);
+        }
+        return repaint;
+    }
+
+    /** Drops the cached pixels or display list; the next {@link #draw} repaints. */
+    void release() {
+        valid = false;
+        content = null;
+        if (node != null) node.discard();
+        if (bitmap != null) {
+            bitmap.recycle();
+            bitmap = null;
+            bitmapCanvas = null;
+        }
+    }
+
+    private void paintBitmap(int width, int height) {
+        if (bitmap == null || bitmap.getWidth() != width || bitmap.getHeight() != height) {
+            if (bitmap != null) bitmap.recycle();
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            bitmapCanvas = new Canvas(bitmap);
+        } else {
+            bitmap.eraseColor(Color.TRANSPARENT);
+        }
+        painter.paint(bitmapCanvas);
+    }
+
+    @TargetApi(Build.VERSION_CODES.Q)
+    private static final class NodeCache {
+        private final RenderNode node = new RenderNode("GraphLiteStaticLayer");
+
+        void record(Painter painter, int width, int height) {
+            node.setPosition(0, 0, width, height);
+            RecordingCanvas canvas = node.beginRecording(width, height);
+            try {
+                painter.paint(canvas);
+            } finally {
+                node.endRecording();
+            }
+        }
+
+        void draw(Canvas canvas) {
+            canvas.drawRenderNode(node);
+        }
+
+        void discard() {
+            node.discardDisplayList();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package dev.noash.graphlitelib;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class BarChartScrollTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 600;
+
+    @Test
+    public void scrollingChartOnlyDrawsVisibleBars() {
+        float[] values = new float[5000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 97;
+        }
+        BarChartView chart = new BarChartView(RuntimeEnvironment.getApplication());
+        chart.setValues(values);
+        chart.setScrollEnabled(true);
+        int[] drawn = {0};
+        chart.setMetricsListener((view, drawNanos, submitted, pointsDrawn, overBudget) -> drawn[0] = pointsDrawn);
+        chart.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        chart.layout(0, 0, WIDTH, HEIGHT);
+        Canvas canvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+
+        chart.onDraw(canvas);
+        int atStart = drawn[0];
+        // 960 px of plot at 120 px per bar
+        assertTrue(atStart >= 8 && atStart <= 11);
+
+        drag(chart, 900f, 100f);
+        chart.onDraw(canvas);
+        assertEquals(5000, chart.getMetrics().getPointsSubmitted() / chart.getMetrics().getFrameCount());
+        assertTrue(drawn[0] >= 8 && drawn[0] <= 12);
+    }
+
+    private static void drag(View view, float fromX, float toX) {
+        long now = SystemClock.uptimeMillis();
+        float y = HEIGHT / 2f;
+        dispatch(view, MotionEvent.obtain(now, now, MotionEvent.ACTION_DOWN, fromX, y, 0));
+        for (int step = 1; step <= 10; step++) {
+            float x = fromX + (toX - fromX) * step / 10f;
+            dispatch(view, MotionEvent.obtain(now, now + step * 16, MotionEvent.ACTION_MOVE, x, y, 0));
+        }
+        dispatch(view, MotionEvent.obtain(now, now + 400, MotionEvent.ACTION_UP, toX, y, 0));
+    }
+
+    private static void dispatch(View view, MotionEvent event) {
+        view.onTouchEvent(event);
+        event.recycle();
+    }
+}
@@ -0,0 +1,82 @@
+package dev.noash.graphlitelib;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class CanvasRendererTest {
+
+    @Test
+    public void segmentModeDrawsStraightLinesInBatches() {
+        int count = 10_000;
+        float[] vertices = new float[count * 2];
+        for (int k = 0; k < count; k++) {
+            vertices[k * 2] = k * 0.1f;
+            vertices[k * 2 + 1] = (k % 50) * 4f;
+        }
+        CountingCanvas canvas = new CountingCanvas();
+        CanvasRenderer renderer = new CanvasRenderer();
+        renderer.segmentLines = true;
+
+        renderer.begin(canvas).drawPolyline(vertices, count, false, 0xFF000000, 2f);
+        renderer.drawPoints(vertices, count, 3f, 0xFF000000);
+
+        int batches = (count - 1 + CanvasRenderer.SEGMENTS_PER_BATCH - 1) / CanvasRenderer.SEGMENTS_PER_BATCH;
+        assertEquals(batches, canvas.lineCalls);
+        assertEquals((count - 1) * 4, canvas.lineFloats);
+        assertEquals(1, canvas.pointCalls);
+        assertEquals(0, canvas.pathCalls);
+        assertEquals(0, renderer.pathBuilds);
+    }
+
+    @Test
+    public void smoothLinesStillUseAPath() {
+        CountingCanvas canvas = new CountingCanvas();
+        CanvasRenderer renderer = new CanvasRenderer();
+        renderer.segmentLines = true;
+
+        renderer.begin(canvas).drawPolyline(new float[]{0f, 0f, 10f, 10f, 20f, 0f}, 3, true, 0xFF000000, 2f);
+
+        assertEquals(0, canvas.lineCalls);
+        assertEquals(1, canvas.pathCalls);
+    }
+
+    private static final class CountingCanvas extends Canvas {
+        int lineCalls;
+        int lineFloats;
+        int pointCalls;
+        int pathCalls;
+
+        CountingCanvas() {
+            super(Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888));
+        }
+
+        @Override
+        public void drawLines(float[] pts, int offset, int count, Paint paint) {
+            lineCalls++;
+            lineFloats += count;
+        }
+
+        @Override
+        public void drawPoints(float[] pts, int offset, int count, Paint paint) {
+            pointCalls++;
+        }
+
+        @Override
+        public void drawPath(Path path, Paint paint) {
+            pathCalls++;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package dev.noash.graphlitelib;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Renders charts repeatedly and fails if a steady-state frame allocates on the Java heap.
+ * {@code onDraw} is called directly so framework and Robolectric work done by {@code View.draw} is not counted.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ChartAllocationTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 600;
+    private static final int WARM_UP_FRAMES = 200;
+    private static final int MEASURED_FRAMES = 1000;
+    // Smallest possible heap object; anything that allocates every frame costs at least this much per frame.
+    private static final long MIN_OBJECT_BYTES = 16;
+
+    @Test
+    public void barChartSteadyStateDrawDoesNotAllocate() {
+        BarChartView chart = new BarChartView(RuntimeEnvironment.getApplication());
+        chart.setValues(new float[]{8500f, 6200f, 3100f, 1200f, 600f, 4200f});
+        chart.setLabels(Arrays.asList("Mobile", "Desktop", "Tablet", "Smart TV", "Wearable", "Other"));
+        chart.setBarColors(Arrays.asList(Color.BLUE, Color.CYAN, Color.MAGENTA));
+
+        assertNoPerFrameAllocations(chart, chart::onDraw);
+    }
+
+    @Test
+    public void lineChartSteadyStateDrawWithTooltipDoesNotAllocate() {
+        float[] values = new float[5000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (float) (Math.sin(i / 50.0) * 1000 + 2000);
+        }
+
+        LineChartView chart = new LineChartView(RuntimeEnvironment.getApplication());
+        chart.setGraphLines(Arrays.asList(
+                new GraphLine(values).setTitle("Value").setShowPoints(true),
+                new GraphLine(values).setTitle("Sampled").setDownsampleMode(DownsampleMode.LTTB)
+        ));
+        chart.setXLabels(Arrays.asList("Jan", "Feb", "Mar"));
+        layout(chart);
+
+        long now = SystemClock.uptimeMillis();
+        MotionEvent down = MotionEvent.obtain(now, now, MotionEvent.ACTION_DOWN, 80f, HEIGHT / 2f, 0);
+        chart.onTouchEvent(down);
+        down.recycle();
+
+        assertNoPerFrameAllocations(chart, chart::onDraw);
+    }
+
+    private static void assertNoPerFrameAllocations(View chart, Frame frame) {
+        layout(chart);
+        Canvas canvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+
+        for (int i = 0; i < WARM_UP_FRAMES; i++) {
+            frame.draw(canvas);
+        }
+
+        long before = allocatedBytes();
+        for (int i = 0; i < MEASURED_FRAMES; i++) {
+            frame.draw(canvas);
+        }
+        long allocated = allocatedBytes() - before;
+
+        // A few bytes of one-off JIT/measurement noise are tolerated, one object per frame is not.
+        assertTrue("onDraw allocated " + allocated + " bytes over " + MEASURED_FRAMES + " frames",
+                allocated < MEASURED_FRAMES * MIN_OBJECT_BYTES);
+    }
+
+    private interface Frame {
+        void draw(Canvas canvas);
+    }
+
+    private static void layout(View chart) {
+        chart.measure(
+                View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        chart.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,166 @@
+package dev.noash.graphlitelib;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.os.Looper;
+import android.view.View;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ChartAnimationTest {
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 400;
+    private final Canvas canvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+
+    @After
+    public void drainAnimations() {
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void repeatedUpdatesShareOneAnimationPerChart() {
+        List<LineChartView> charts = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            LineChartView chart = lineChart();
+            charts.add(chart);
+            for (int update = 0; update < 5; update++) {
+                chart.setGraphLines(Arrays.asList(new GraphLine(new float[]{1f, 3f + update, 2f})));
+                chart.onDraw(canvas);
+            }
+        }
+
+        assertEquals(30, ChartAnimator.get().activeCount());
+    }
+
+    @Test
+    public void firstFrameIsDrawnAndAnimationFinishes() {
+        LineChartView chart = lineChart();
+        chart.setGraphLines(Arrays.asList(new GraphLine(new float[]{1f, 3f, 2f})));
+        chart.onDraw(canvas);
+
+        assertEquals(1, chart.getMetrics().getAnimationFrameCount());
+        assertEquals(1, ChartAnimator.get().activeCount());
+
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(600));
+        assertEquals(0, ChartAnimator.get().activeCount());
+    }
+
+    @Test
+    public void barChartAnimatesEntranceAndRestartsInPlace() {
+        BarChartView chart = new BarChartView(RuntimeEnvironment.getApplication());
+        chart.setAnimationType(LineChartView.AnimationType.EASE_IN_OUT);
+        chart.setAnimationDuration(500);
+        chart.setMetricsEnabled(true);
+        layout(chart);
+        chart.setValues(new float[]{4f, 2f, 6f});
+        chart.onDraw(canvas);
+        chart.setValues(new float[]{5f, 2f, 6f});
+        chart.onDraw(canvas);
+
+        assertEquals(2, chart.getMetrics().getAnimationFrameCount());
+        assertEquals(1, ChartAnimator.get().activeCount());
+
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(600));
+        chart.onDraw(canvas);
+        assertEquals(2, chart.getMetrics().getAnimationFrameCount());
+        assertEquals(0, ChartAnimator.get().activeCount());
+    }
+
+    @Test
+    public void barUpdateWithoutChangesDoesNotAnimate() {
+        BarChartView chart = new BarChartView(RuntimeEnvironment.getApplication());
+        chart.setMetricsEnabled(true);
+        layout(chart);
+        chart.updateValues(Arrays.asList("a", "b", "c"), new float[]{4f, 2f, 6f});
+        chart.onDraw(canvas);
+        chart.setAnimationType(LineChartView.AnimationType.EASE_IN_OUT);
+
+        chart.updateValues(Arrays.asList("a", "b", "c"), new float[]{4f, 2f, 6f});
+        chart.onDraw(canvas);
+        assertEquals(0, chart.getMetrics().getAnimationFrameCount());
+        assertEquals(0, ChartAnimator.get().activeCount());
+
+        chart.updateValues(Arrays.asList("c", "a", "d"), new float[]{6f, 5f, 1f});
+        chart.onDraw(canvas);
+        assertEquals(1, chart.getMetrics().getAnimationFrameCount());
+        assertEquals(1, ChartAnimator.get().activeCount());
+    }
+
+    @Test
+    public void replacedLinesKeepTheLastSnapshotUntilTheirLayoutArrives() {
+        Bitmap target = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(target);
+        List<Runnable> layouts = new ArrayList<>();
+        LineChartView chart = lineChart();
+        // Attached, so the published snapshot is posted to the main looper.
+        Robolectric.buildActivity(Activity.class).setup().get().setContentView(chart);
+        layout(chart);
+        chart.setAnimationType(LineChartView.AnimationType.NONE);
+        chart.setLayoutExecutor(layouts::add);
+        chart.setGraphLines(Arrays.asList(new GraphLine(new float[]{1f, 3f, 2f}).setColor(Color.RED)));
+        chart.onDraw(canvas);
+        layouts.remove(0).run();
+        shadowOf(Looper.getMainLooper()).idle();
+
+        chart.setGraphLines(Arrays.asList(new GraphLine(new float[]{2f, 1f, 3f}).setColor(Color.BLUE),
+                new GraphLine(new float[]{3f, 2f, 1f}).setColor(Color.BLUE)));
+        target.eraseColor(Color.TRANSPARENT);
+        chart.onDraw(canvas);
+        assertEquals("the new layout is still in flight", 1, layouts.size());
+        assertTrue(countPixels(target, Color.RED) > 0);
+        assertEquals(0, countPixels(target, Color.BLUE));
+
+        layouts.remove(0).run();
+        shadowOf(Looper.getMainLooper()).idle();
+        target.eraseColor(Color.TRANSPARENT);
+        chart.onDraw(canvas);
+        assertEquals(0, countPixels(target, Color.RED));
+        assertTrue(countPixels(target, Color.BLUE) > 0);
+    }
+
+    private static int countPixels(Bitmap bitmap, int color) {
+        int count = 0;
+        for (int y = 0; y < bitmap.getHeight(); y++) {
+            for (int x = 0; x < bitmap.getWidth(); x++) {
+                if (bitmap.getPixel(x, y) == color) count++;
+            }
+        }
+        return count;
+    }
+
+    private static LineChartView lineChart() {
+        LineChartView chart = new LineChartView(RuntimeEnvironment.getApplication());
+        chart.setAnimationType(LineChartView.AnimationType.EASE_IN_OUT);
+        chart.setAnimationDuration(500);
+        chart.setMetricsEnabled(true);
+        layout(chart);
+        return chart;
+    }
+
+    private static void layout(View chart) {
+        chart.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        chart.layout(0, 0, WIDTH, HEIGHT);
+    }
+}
@@ -0,0 +1,101 @@
+package dev.noash.graphlitelib;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ChartMetricsTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 600;
+
+    @Test
+    public void nothingIsRecordedUntilEnabled() {
+        LineChartView chart = lineChart();
+        Canvas canvas = canvas(chart);
+        chart.onDraw(canvas);
+        chart.onDraw(canvas);
+
+        assertEquals(0, chart.getMetrics().getFrameCount());
+        assertEquals(0, chart.getMetrics().getPointsSubmitted());
+    }
+
+    @Test
+    public void lineChartCountsFramesPointsAndCacheHits() {
+        LineChartView chart = lineChart();
+        chart.setMetricsEnabled(true);
+        Canvas canvas = canvas(chart);
+        for (int i = 0; i < 5; i++) {
+            chart.onDraw(canvas);
+        }
+
+        ChartMetrics metrics = chart.getMetrics();
+        assertEquals(5, metrics.getFrameCount());
+        assertEquals(5 * 2 * 5000L, metrics.getPointsSubmitted());
+        assertTrue(metrics.getPointsDrawn() < metrics.getPointsSubmitted());
+        assertTrue(metrics.getLayoutCacheHits() >= 1);
+        assertTrue(metrics.getLayerCacheHits() >= 1);
+        assertTrue(metrics.getMaxDrawNanos() > 0);
+
+        chart.resetMetrics();
+        assertEquals(0, chart.getMetrics().getFrameCount());
+    }
+
+    @Test
+    public void listenerReceivesEveryBarChartFrame() {
+        BarChartView chart = new BarChartView(RuntimeEnvironment.getApplication());
+        chart.setValues(new float[]{8500f, 6200f, 3100f});
+        chart.setLabels(Arrays.asList("Mobile", "Desktop", "Tablet"));
+        int[] frames = {0};
+        int[] lastDrawn = {0};
+        chart.setMetricsListener((view, drawNanos, submitted, drawn, overBudget) -> {
+            assertSame(chart, view);
+            frames[0]++;
+            lastDrawn[0] = drawn;
+        });
+        chart.setFrameBudgetNanos(0);
+        Canvas canvas = canvas(chart);
+        chart.onDraw(canvas);
+        chart.onDraw(canvas);
+
+        assertEquals(2, frames[0]);
+        assertEquals(3, lastDrawn[0]);
+        assertEquals(2, chart.getMetrics().getFramesOverBudget());
+        assertEquals(1, chart.getMetrics().getLayerCacheMisses());
+    }
+
+    private static LineChartView lineChart() {
+        float[] values = new float[5000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (float) Math.sin(i / 50.0);
+        }
+        LineChartView chart = new LineChartView(RuntimeEnvironment.getApplication());
+        chart.setGraphLines(Arrays.asList(
+                new GraphLine(values),
+                new GraphLine(values).setDownsampleMode(DownsampleMode.LTTB)
+        ));
+        return chart;
+    }
+
+    private static Canvas canvas(View chart) {
+        chart.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        chart.layout(0, 0, WIDTH, HEIGHT);
+        return new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+    }
+}
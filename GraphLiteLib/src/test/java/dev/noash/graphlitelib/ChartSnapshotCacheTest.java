@@ -0,0 +1,127 @@
+package dev.noash.graphlitelib;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.os.Looper;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ChartSnapshotCacheTest {
+    private static final int WIDTH = 300;
+    private static final int HEIGHT = 120;
+
+    @Test
+    public void equalChartsShareOneRenderedBitmap() {
+        // Renders inline; the result is still handed back through the main looper.
+        ChartSnapshotCache cache = new ChartSnapshotCache(4 * 1024 * 1024, Runnable::run);
+        LineChartView first = sparkline(cache, new float[]{1f, 5f, 3f, 8f});
+        Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+
+        first.onDraw(canvas);
+        assertEquals("a miss draws nothing until the bitmap is ready", 0, bitmap.getPixel(WIDTH / 2, HEIGHT / 2));
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(WIDTH * HEIGHT * 4, cache.size());
+
+        // A recycled row bound to equal data in new objects blits the same bitmap.
+        LineChartView second = sparkline(cache, new float[]{1f, 5f, 3f, 8f});
+        second.onDraw(canvas);
+        assertEquals(1, cache.hitCount());
+        assertTrue(hasInk(bitmap));
+
+        sparkline(cache, new float[]{2f, 5f, 3f, 8f}).onDraw(canvas);
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(2 * WIDTH * HEIGHT * 4, cache.size());
+    }
+
+    @Test
+    public void barChartsKeyOnLabelsAndColors() {
+        ChartSnapshotCache cache = new ChartSnapshotCache(4 * 1024 * 1024, Runnable::run);
+        Canvas canvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+        BarChartView bars = new BarChartView(RuntimeEnvironment.getApplication());
+        bars.setSnapshotCache(cache);
+        bars.setValues(new float[]{3f, 4f});
+        bars.setLabels(Arrays.asList("a", "b"));
+        size(bars);
+
+        bars.onDraw(canvas);
+        shadowOf(Looper.getMainLooper()).idle();
+        int afterFirst = cache.size();
+        bars.setBarColors(Collections.singletonList(Color.RED));
+        bars.onDraw(canvas);
+        shadowOf(Looper.getMainLooper()).idle();
+        assertNotEquals(afterFirst, cache.size());
+    }
+
+    @Test
+    public void failedRenderIsNotRetried() {
+        AtomicInteger renders = new AtomicInteger();
+        ChartSnapshotCache cache = new ChartSnapshotCache(4 * 1024 * 1024, Runnable::run);
+        ChartSnapshotCache.Key key = new ChartSnapshotCache.Key(WIDTH, HEIGHT).mix(42);
+        AtomicInteger ready = new AtomicInteger();
+        ChartSnapshotCache.Renderer failing = canvas -> {
+            renders.incrementAndGet();
+            throw new IllegalStateException("broken chart");
+        };
+
+        cache.request(key, failing, ready::incrementAndGet);
+        shadowOf(Looper.getMainLooper()).idle();
+        cache.request(key, failing, ready::incrementAndGet);
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertEquals(1, renders.get());
+        assertEquals("a failure does not redraw the chart", 0, ready.get());
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    public void keysOfDifferentSizeOrDataDiffer() {
+        ChartSnapshotCache.Key key = new ChartSnapshotCache.Key(WIDTH, HEIGHT).mix(FloatSeries.of(1f, 2f));
+        assertEquals(key, new ChartSnapshotCache.Key(WIDTH, HEIGHT).mix(FloatSeries.of(1f, 2f)));
+        assertNotEquals(key, new ChartSnapshotCache.Key(HEIGHT, WIDTH).mix(FloatSeries.of(1f, 2f)));
+        assertNotEquals(key, new ChartSnapshotCache.Key(WIDTH, HEIGHT).mix(FloatSeries.of(2f, 1f)));
+    }
+
+    private static LineChartView sparkline(ChartSnapshotCache cache, float[] values) {
+        LineChartView chart = new LineChartView(RuntimeEnvironment.getApplication());
+        chart.setSnapshotCache(cache);
+        chart.setGraphLines(Collections.singletonList(new GraphLine(values).setColor(Color.BLUE).setLineWidth(8f)));
+        size(chart);
+        return chart;
+    }
+
+    private static void size(View view) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    private static boolean hasInk(Bitmap bitmap) {
+        for (int y = 0; y < bitmap.getHeight(); y++) {
+            for (int x = 0; x < bitmap.getWidth(); x++) {
+                if (bitmap.getPixel(x, y) != 0) return true;
+            }
+        }
+        return false;
+    }
+}
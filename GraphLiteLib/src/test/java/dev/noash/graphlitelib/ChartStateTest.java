@@ -0,0 +1,156 @@
+package dev.noash.graphlitelib;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.os.Looper;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.view.View;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+import org.robolectric.android.controller.ActivityController;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ChartStateTest {
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 400;
+    private final Canvas canvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+
+    @After
+    public void drainAnimations() {
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void lineChartRestoresFromParcelWithoutAnimating() {
+        float[] samples = new float[500];
+        for (int i = 0; i < samples.length; i++) samples[i] = (float) Math.sin(i / 20.0) * 100f;
+        LineChartView chart = lineChart();
+        chart.setGraphLines(Arrays.asList(new GraphLine(samples).setColor(Color.RED).setTimestamps(times(500))));
+        chart.setXLabels(Arrays.asList("a", "b", "c"));
+        chart.setZoomEnabled(true);
+        chart.setViewport(1000, 3000);
+
+        LineChartView.SavedState saved = parcel((LineChartView.SavedState) chart.onSaveInstanceState(),
+                LineChartView.SavedState.CREATOR);
+        assertEquals(0, saved.token);
+        LineChartView restored = lineChart();
+        restored.onRestoreInstanceState(saved);
+        restored.onDraw(canvas);
+
+        assertEquals(0, restored.getMetrics().getAnimationFrameCount());
+        assertEquals(0, ChartAnimator.get().activeCount());
+        LineChartView.SavedState again = (LineChartView.SavedState) restored.onSaveInstanceState();
+        GraphLine line = again.lines.get(0);
+        assertEquals(Color.RED, line.color);
+        assertEquals(samples[123], line.getValues().get(123), 0f);
+        assertEquals(100f, line.getValues().max(), 0.01f);
+        assertEquals(1_700_000_000_000L + 123 * 10L, line.getTimestamps().get(123));
+        assertEquals(Arrays.asList("a", "b", "c"), again.labels);
+        assertEquals(1000f, again.viewStart, 0.01f);
+        assertEquals(3000f, again.viewEnd, 0.01f);
+    }
+
+    @Test
+    public void largeBarChartIsHandedOverInMemory() {
+        float[] values = new float[50_000];
+        List<String> labels = new ArrayList<>(values.length);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 97;
+            labels.add("bar " + i);
+        }
+        BarChartView chart = new BarChartView(RuntimeEnvironment.getApplication());
+        chart.setValues(values);
+        chart.setLabels(labels);
+        chart.setBarColors(Arrays.asList(Color.BLUE, Color.GREEN));
+
+        BarChartView.SavedState saved = parcel((BarChartView.SavedState) chart.onSaveInstanceState(),
+                BarChartView.SavedState.CREATOR);
+        assertTrue(saved.token != 0);
+        assertNull("large data stays out of the parcel", saved.values);
+        BarChartView restored = new BarChartView(RuntimeEnvironment.getApplication());
+        restored.setAnimationType(LineChartView.AnimationType.EASE_IN_OUT);
+        restored.setMetricsEnabled(true);
+        layout(restored);
+        restored.onRestoreInstanceState(saved);
+        restored.onDraw(canvas);
+
+        assertEquals(0, restored.getMetrics().getAnimationFrameCount());
+        BarChartView.SavedState again = (BarChartView.SavedState) restored.onSaveInstanceState();
+        assertEquals(values.length, again.values.size());
+        assertEquals(96f, again.values.max(), 0f);
+        assertEquals("bar 4999", again.labels.get(4999));
+        assertArrayEquals(new Object[]{Color.BLUE, Color.GREEN}, again.barColors.toArray());
+        assertNull("the holder is released once taken", ChartState.take(saved.token));
+    }
+
+    @Test
+    public void heldStateIsReleasedWhenTheActivityFinishes() {
+        ActivityController<Activity> controller = Robolectric.buildActivity(Activity.class).setup();
+        BarChartView chart = new BarChartView(controller.get());
+        controller.get().setContentView(chart);
+        chart.setValues(new float[50_000]);
+
+        long first = ((BarChartView.SavedState) chart.onSaveInstanceState()).token;
+        long second = ((BarChartView.SavedState) chart.onSaveInstanceState()).token;
+        assertNull("saving again releases the earlier state", ChartState.take(first));
+
+        controller.get().finish();
+        controller.pause().stop().destroy();
+        assertNull(ChartState.take(second));
+    }
+
+    private static <T extends Parcelable> T parcel(T state, Parcelable.Creator<T> creator) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            state.writeToParcel(parcel, 0);
+            parcel.setDataPosition(0);
+            return creator.createFromParcel(parcel);
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    private static long[] times(int count) {
+        long[] times = new long[count];
+        for (int i = 0; i < count; i++) times[i] = 1_700_000_000_000L + i * 10L;
+        return times;
+    }
+
+    private static LineChartView lineChart() {
+        LineChartView chart = new LineChartView(RuntimeEnvironment.getApplication());
+        chart.setAnimationType(LineChartView.AnimationType.EASE_IN_OUT);
+        chart.setAnimationDuration(500);
+        chart.setMetricsEnabled(true);
+        layout(chart);
+        return chart;
+    }
+
+    private static void layout(View chart) {
+        chart.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        chart.layout(0, 0, WIDTH, HEIGHT);
+    }
+}
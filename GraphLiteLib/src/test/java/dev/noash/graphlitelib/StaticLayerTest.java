@@ -0,0 +1,45 @@
+package dev.noash.graphlitelib;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class StaticLayerTest {
+
+    @Test
+    public void repaintsOnlyWhenContentStyleOrSizeChange() {
+        int[] paints = new int[1];
+        StaticLayer layer = new StaticLayer(canvas -> {
+            paints[0]++;
+            canvas.drawColor(Color.RED);
+        });
+        Bitmap target = Bitmap.createBitmap(100, 50, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(target);
+        Object content = new Object();
+
+        layer.draw(canvas, 100, 50, content, 1L);
+        layer.draw(canvas, 100, 50, content, 1L);
+        assertEquals(1, paints[0]);
+        assertEquals(Color.RED, target.getPixel(10, 10));
+
+        layer.draw(canvas, 100, 50, content, 2L);
+        layer.draw(canvas, 100, 50, new Object(), 2L);
+        layer.draw(canvas, 80, 50, content, 2L);
+        assertEquals(4, paints[0]);
+
+        layer.release();
+        layer.draw(canvas, 80, 50, content, 2L);
+        assertEquals(5, paints[0]);
+    }
+}
@@ -0,0 +1,51 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    jmh(project(":GraphLiteCore"))
+}
+
+jmh {
+    jmhVersion = libs.versions.jmh.get()
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+    // e.g. ./gradlew :benchmarks:jmh -Pjmh.includes=LineLayout
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.add(it) }
+}
+
+// Prints each benchmark's change against the committed baseline; run after :benchmarks:jmh.
+tasks.register("jmhCompare") {
+    val baseline = layout.projectDirectory.file("baseline/results.json").asFile
+    val current = layout.buildDirectory.file("results/jmh/results.json").get().asFile
+    doLast {
+        fun load(file: File): Map<String, Double> {
+            @Suppress("UNCHECKED_CAST")
+            val runs = groovy.json.JsonSlurper().parse(file) as List<Map<String, Any>>
+            return runs.associate { run ->
+                @Suppress("UNCHECKED_CAST")
+                val params = (run["params"] as Map<String, Any>?)?.toSortedMap()?.toString() ?: ""
+                @Suppress("UNCHECKED_CAST")
+                val metric = run["primaryMetric"] as Map<String, Any>
+                "${run["benchmark"]} $params" to (metric["score"] as Number).toDouble()
+            }
+        }
+
+        val before = load(baseline)
+        val after = load(current)
+        after.toSortedMap().forEach { (name, score) ->
+            val old = before[name]
+            val change = if (old == null) "new" else "%+.1f%%".format((score - old) / old * 100)
+            println("%-110s %14.3f %10s".format(name, score, change))
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package dev.noash.graphlitelib;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/** Tick generation, label formatting and smoothing: small per call, but paid for every axis and line. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class AxisBenchmark {
+    private static final int VERTICES = 2160;
+
+    private final LabelFormatter formatter = new LabelFormatter();
+    private final float[] vertices = new float[VERTICES * 2];
+    private final float[] segments = new float[LineSmoother.capacityFor(VERTICES)];
+    private float max = 1f;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        float[] values = BenchmarkData.signal(VERTICES, 2);
+        for (int i = 0; i < VERTICES; i++) {
+            vertices[i * 2] = i * 0.5f;
+            vertices[i * 2 + 1] = values[i] / 10f;
+        }
+    }
+
+    @Benchmark
+    public AxisTicks niceTicks() {
+        max = max * 1.7f % 1e9f + 1f;
+        return AxisTicks.compute(max, 6);
+    }
+
+    @Benchmark
+    public int formatCompactLabels() {
+        int total = 0;
+        for (int i = 0; i <= 5; i++) {
+            total += formatter.clear().appendCompact(i * 2500f, 2500f).length;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int smoothLine() {
+        return LineSmoother.quadSegments(vertices, VERTICES, segments);
+    }
+}
@@ -0,0 +1,20 @@
+package dev.noash.graphlitelib;
+
+import java.util.Random;
+
+/** Deterministic test signals shared by the benchmarks. */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /** A slow sine wave with noise, shaped like sensor or metrics data. */
+    static float[] signal(int size, long seed) {
+        Random random = new Random(seed);
+        float[] values = new float[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = (float) (Math.sin(i / 500.0) * 1000 + 2000 + random.nextGaussian() * 50);
+        }
+        return values;
+    }
+}
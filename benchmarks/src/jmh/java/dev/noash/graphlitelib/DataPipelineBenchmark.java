@@ -0,0 +1,74 @@
+package dev.noash.graphlitelib;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/** The data-side building blocks on their own, so a regression in a layout benchmark can be traced to one of them. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DataPipelineBenchmark {
+    private static final int TARGET_POINTS = 2000;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private FloatSeries series;
+    private RingFloatSeries ring;
+    private MinMaxPyramid pyramid;
+    private final int[] indices = new int[MinMaxPyramid.capacityFor(TARGET_POINTS)];
+    private float next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        float[] values = BenchmarkData.signal(size, 1);
+        series = FloatSeries.of(values);
+        ring = new RingFloatSeries(size);
+        ring.append(values, 0, values.length);
+        pyramid = new MinMaxPyramid(series);
+    }
+
+    @Benchmark
+    public float maxScan() {
+        return series.max();
+    }
+
+    @Benchmark
+    public int downsampleLttb() {
+        return Downsampler.sample(series, DownsampleMode.LTTB, TARGET_POINTS, indices);
+    }
+
+    @Benchmark
+    public int downsampleMinMax() {
+        return Downsampler.sample(series, DownsampleMode.MIN_MAX, TARGET_POINTS, indices);
+    }
+
+    @Benchmark
+    public MinMaxPyramid pyramidBuild() {
+        return new MinMaxPyramid(series);
+    }
+
+    @Benchmark
+    public int pyramidSelectFullRange() {
+        return pyramid.select(0, size, TARGET_POINTS / 2, indices);
+    }
+
+    /** Steady-state streaming: one sample in, one out, then the window max the axis needs. */
+    @Benchmark
+    public float ringAppendAndMax() {
+        next += 1f;
+        ring.append(next % 4000f);
+        return ring.max();
+    }
+}
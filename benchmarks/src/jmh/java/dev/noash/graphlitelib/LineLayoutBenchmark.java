@@ -0,0 +1,66 @@
+package dev.noash.graphlitelib;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What {@code LineChartView} does per frame, off-device: max scans, downsampling, tick generation and coordinate
+ * mapping for a 1080px wide chart.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LineLayoutBenchmark {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 600;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"1", "4"})
+    public int lineCount;
+
+    @Param({"NONE", "LTTB", "MIN_MAX"})
+    public DownsampleMode mode;
+
+    private List<GraphLine> lines;
+    private LineChartLayout warmLayout;
+    private float panOffset;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        lines = new ArrayList<>();
+        for (int l = 0; l < lineCount; l++) {
+            lines.add(new GraphLine(BenchmarkData.signal(size, l)).setDownsampleMode(mode));
+        }
+        warmLayout = new LineChartLayout();
+    }
+
+    /** First frame after new data: every cache is cold. */
+    @Benchmark
+    public RenderSnapshot coldLayout() {
+        return new LineChartLayout().layout(new LineChartLayout.Input(0, WIDTH, HEIGHT, lines, size, 0, 5));
+    }
+
+    /** One frame of a pan across a tenth of the data, with the pyramid already built. */
+    @Benchmark
+    public RenderSnapshot zoomedPanFrame() {
+        float span = size / 10f;
+        panOffset = (panOffset + span / 60f) % (size - span);
+        return warmLayout.layout(new LineChartLayout.Input(0, WIDTH, HEIGHT, lines, size, 0, 5,
+                panOffset, panOffset + span));
+    }
+}
@@ -22,4 +22,7 @@ dependencyResolutionManagement {
 rootProject.name = "GraphLite"
 include(":app")
 include(":GraphLiteLib")
+include(":GraphLiteCore")
+include(":GraphLiteHeadless")
+include(":benchmarks")
 include(":app", ":GraphLiteLib")